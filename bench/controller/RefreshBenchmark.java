@@ -0,0 +1,145 @@
+package controller;
+
+import model.Employee;
+import model.Group;
+import model.Task;
+import model.TaskPriority;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Times the "My Tasks" lookup both dashboards run on every refresh, over 1M tasks and 10k groups:
+// the old scan of every task (checking each group task's member list) against
+// TaskController.getTasksFor(), and checks the two agree for every sampled employee.
+//
+// The controllers read and write fixed paths under src/data, so run it from an empty directory;
+// it generates a roster there and journals the tasks it creates. From the repository root:
+//
+//   javac -encoding UTF-8 -d /tmp/bench-classes $(find src/controller src/model src/view bench -name '*.java')
+//   mkdir /tmp/bench-run && cd /tmp/bench-run && java -Xmx6g -cp /tmp/bench-classes controller.RefreshBenchmark
+public class RefreshBenchmark {
+
+    private static final int EMPLOYEES = 300_000;
+    private static final int GROUPS = 10_000;
+    private static final int MEMBERS_PER_GROUP = 20;
+    private static final int TASKS = 1_000_000;
+    private static final double GROUP_TASKS = 0.2; // Share of tasks given to a group rather than a person
+    private static final int WARMUP = 50;
+    private static final int SAMPLES = 500;
+
+    public static void main(String[] args) throws IOException {
+        if (Files.exists(Path.of("src"))) {
+            System.out.println("Run from an empty directory; this one already has src/ and its data would be overwritten");
+            System.exit(1);
+        }
+        writeRoster(Path.of("src/data/employees.csv")); // Where EmployeeController reads the roster
+        Random random = new Random(5);
+
+        // Nothing else runs here, so the controllers are used from main rather than the EDT
+        ChangeBus changeBus = new ChangeBus();
+        EmployeeController employeeController = new EmployeeController(changeBus);
+        GroupController groupController = new GroupController(employeeController, changeBus);
+        TaskController taskController = new TaskController(changeBus);
+        taskController.recover(employeeController, groupController);
+        List<Employee> roster = new ArrayList<>(employeeController.getEmployees().values());
+
+        long start = System.nanoTime();
+        List<Group> groups = new ArrayList<>();
+        for (int g = 0; g < GROUPS; g++) {
+            Group group = groupController.createGroup("Group " + g);
+            while (group.getMembers().size() < MEMBERS_PER_GROUP) group.addEmployee(roster.get(random.nextInt(roster.size())));
+            groups.add(group);
+        }
+
+        List<TaskImporter.Row> rows = new ArrayList<>(TaskController.IMPORT_CHUNK);
+        for (int t = 0; t < TASKS; t++) {
+            boolean toGroup = random.nextDouble() < GROUP_TASKS;
+            rows.add(new TaskImporter.Row("Task " + t, "", taskController.getStatuses().get(random.nextInt(3)),
+                    toGroup ? null : roster.get(random.nextInt(roster.size())),
+                    toGroup ? groups.get(random.nextInt(groups.size())) : null, TaskPriority.NORMAL, null));
+            if (rows.size() == TaskController.IMPORT_CHUNK || t == TASKS - 1) {
+                taskController.importTasks(rows);
+                rows.clear();
+            }
+        }
+        System.out.println("Built " + TASKS + " tasks, " + GROUPS + " groups of " + MEMBERS_PER_GROUP + " and "
+                + roster.size() + " employees in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        // Group members, so every sample has group tasks as well as direct ones
+        Employee[] sample = new Employee[WARMUP + SAMPLES];
+        for (int i = 0; i < sample.length; i++) {
+            List<Employee> members = groups.get(random.nextInt(groups.size())).getMembers();
+            sample[i] = members.get(random.nextInt(members.size()));
+        }
+
+        long[] scan = new long[SAMPLES];
+        long[] index = new long[SAMPLES];
+        long found = 0;
+        for (int i = 0; i < sample.length; i++) {
+            long t0 = System.nanoTime();
+            List<Task> before = scan(taskController, sample[i]);
+            long t1 = System.nanoTime();
+            List<Task> after = taskController.getTasksFor(sample[i]);
+            long t2 = System.nanoTime();
+
+            if (!before.equals(after)) {
+                System.out.println("Mismatch for " + sample[i].getUsername() + ": scan found " + before.size()
+                        + " tasks, index " + after.size());
+                System.exit(1);
+            }
+            if (i < WARMUP) continue;
+            scan[i - WARMUP] = t1 - t0;
+            index[i - WARMUP] = t2 - t1;
+            found += after.size();
+        }
+
+        System.out.println(SAMPLES + " refreshes, " + found / SAMPLES + " tasks each on average, results identical");
+        report("Scan of every task", scan);
+        report("getTasksFor()", index);
+
+        taskController.close();
+        System.exit(0);
+    }
+
+    // Helper Methods
+
+    // The lookup both panels ran before the indexes: every task, and each group task's member list
+    private static List<Task> scan(TaskController taskController, Employee user) {
+        List<Task> mine = new ArrayList<>();
+        for (Task t : taskController.getTasks()) {
+            boolean isAssignedDirectly = t.getAssignee() != null && t.getAssignee().equals(user);
+            boolean isAssignedToGroup = t.getGroup() != null && t.getGroup().getMembers().contains(user);
+            if (isAssignedDirectly || isAssignedToGroup) mine.add(t);
+        }
+        return mine;
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-20s median %8.3f ms   p99 %8.3f ms   max %8.3f ms%n", label,
+                sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static void writeRoster(Path csv) throws IOException {
+        String[] departments = {"Pharmacy", "Nursing", "Surgery", "Radiology", "Communications"};
+        Files.createDirectories(csv.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("username,password,id,firstName,lastName,streetAddress,city,state,country,salary,hireDate,birthDate,department,role");
+            out.newLine();
+            for (int i = 0; i < EMPLOYEES; i++) {
+                out.write("user" + i + ",pass" + i + "," + (1000 + i) + ",First" + i + ",Last" + i
+                        + ",1 Main St,Columbus,OH,USA," + (40_000 + i % 60_000) + ",2020-01-01,1990-01-01,"
+                        + departments[i % departments.length] + "," + (i % 10 == 0 ? "Manager" : "Laborer"));
+                out.newLine();
+            }
+        }
+    }
+}
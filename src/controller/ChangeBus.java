@@ -0,0 +1,57 @@
+package controller;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Carries ChangeEvents from the controllers to the panels. Events can be published from any
+// thread; they are queued and handed to subscribers on the EDT in one batch per burst, so a
+// thousand status changes in a row cost each panel one update instead of a thousand.
+public class ChangeBus {
+
+    public interface Subscriber {
+        // Always called on the EDT, in publish order, with repeats removed
+        void changed(List<ChangeEvent> events);
+    }
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private List<ChangeEvent> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    public void subscribe(Subscriber s) { subscribers.add(s); }
+    public void unsubscribe(Subscriber s) { subscribers.remove(s); }
+
+    public void publish(ChangeEvent event) {
+        // Nobody listening yet (e.g. during startup recovery), so there is nothing to queue
+        if (subscribers.isEmpty()) return;
+
+        synchronized (this) {
+            pending.add(event);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flush);
+    }
+
+    private void flush() {
+        List<ChangeEvent> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushScheduled = false;
+        }
+
+        List<ChangeEvent> events = new ArrayList<>(new LinkedHashSet<>(batch));
+        for (Subscriber s : subscribers) {
+            try {
+                s.changed(events);
+            }
+            catch (Exception e) {
+                System.out.println("Change subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+
+}
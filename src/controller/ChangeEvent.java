@@ -0,0 +1,75 @@
+package controller;
+
+import model.*;
+
+import java.util.Objects;
+
+// One change to the data behind the dashboards. Which of task, employee and group are set
+// depends on the kind: MEMBER_ADDED and MEMBER_REMOVED carry both the group and the employee,
+// SUBGROUP_ADDED the group that gained one.
+public class ChangeEvent {
+
+    public enum Kind {
+        TASK_CREATED,
+        TASK_CHANGED,     // Status, assignee, group, schedule or prerequisites
+        TASKS_IMPORTED,   // Many tasks appended at once; carries no task
+        TASKS_UPDATED,    // Many tasks changed at once; carries no task
+        ESCALATIONS_CHANGED, // Tasks became overdue or overdue tasks moved on; carries no task
+        STATUS_ADDED,
+        EMPLOYEE_ADDED,
+        EMPLOYEE_CHANGED,
+        EMPLOYEE_REMOVED,
+        GROUP_CREATED,
+        MEMBER_ADDED,
+        MEMBER_REMOVED,
+        MEMBERS_CHANGED,  // A group's membership was recomputed from its rule; carries only the group
+        SUBGROUP_ADDED
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final Employee employee;
+    private final Group group;
+    private final TaskStatus status;
+
+    private ChangeEvent(Kind kind, Task task, Employee employee, Group group, TaskStatus status) {
+        this.kind = kind;
+        this.task = task;
+        this.employee = employee;
+        this.group = group;
+        this.status = status;
+    }
+
+    public static ChangeEvent task(Kind kind, Task task) { return new ChangeEvent(kind, task, null, null, null); }
+    public static ChangeEvent tasksImported() { return new ChangeEvent(Kind.TASKS_IMPORTED, null, null, null, null); }
+    public static ChangeEvent tasksUpdated() { return new ChangeEvent(Kind.TASKS_UPDATED, null, null, null, null); }
+    public static ChangeEvent escalationsChanged() { return new ChangeEvent(Kind.ESCALATIONS_CHANGED, null, null, null, null); }
+    public static ChangeEvent employee(Kind kind, Employee e) { return new ChangeEvent(kind, null, e, null, null); }
+    public static ChangeEvent statusAdded(TaskStatus s) { return new ChangeEvent(Kind.STATUS_ADDED, null, null, null, s); }
+    public static ChangeEvent groupCreated(Group g) { return new ChangeEvent(Kind.GROUP_CREATED, null, null, g, null); }
+    public static ChangeEvent memberAdded(Group g, Employee e) { return new ChangeEvent(Kind.MEMBER_ADDED, null, e, g, null); }
+    public static ChangeEvent memberRemoved(Group g, Employee e) { return new ChangeEvent(Kind.MEMBER_REMOVED, null, e, g, null); }
+    public static ChangeEvent membersChanged(Group g) { return new ChangeEvent(Kind.MEMBERS_CHANGED, null, null, g, null); }
+    public static ChangeEvent subgroupAdded(Group g) { return new ChangeEvent(Kind.SUBGROUP_ADDED, null, null, g, null); }
+
+    public Kind getKind() { return kind; }
+    public Task getTask() { return task; }
+    public Employee getEmployee() { return employee; }
+    public Group getGroup() { return group; }
+    public TaskStatus getStatus() { return status; }
+
+    // Equal events in one burst are delivered once
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ChangeEvent)) return false;
+        ChangeEvent other = (ChangeEvent) o;
+        return kind == other.kind && task == other.task && employee == other.employee
+                && group == other.group && status == other.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, task, employee, group, status);
+    }
+
+}
@@ -0,0 +1,593 @@
+package controller;
+
+import model.*;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Writes tasks, the roster, groups and group memberships out as one file per table, either CSV or
+// a simple columnar format. Meant to run off the EDT (e.g. in a SwingWorker): rows are copied out
+// CHUNK_ROWS at a time on the EDT, where the controllers live, and encoded on the calling thread
+// straight into a fixed buffer that is written through a FileChannel. Text is encoded character
+// by character and numbers digit by digit, so no per-row Strings are built, and memory stays the
+// same whatever the row count.
+//
+// The CSV files have a header row; tasks.csv uses the columns TaskImporter reads, so it can be
+// imported again. Employee passwords are never exported.
+//
+// Columnar files (.mtc) are: "MTCF", version, column count, then each column's name and type;
+// then row groups of up to ROW_GROUP_ROWS rows (fewer once the group's data passes ROW_GROUP_BYTES,
+// so long text can't make a group's buffers grow without bound), each [row count] followed by
+// every column's data as [byte length][values]. INT and LONG values are big-endian; LONG times are UTC epoch seconds
+// with Long.MIN_VALUE for none; DOUBLE is IEEE 754; a STRING column is every row's UTF-8 length
+// (-1 for null) followed by all of the bytes. The file ends with [row group count][total rows] and
+// "MTCF" again, so a truncated file is easy to spot.
+public class DataExporter {
+
+    public enum Format {
+        CSV(".csv"),
+        COLUMNAR(".mtc");
+
+        private final String extension;
+
+        Format(String extension) { this.extension = extension; }
+
+        public String getExtension() { return extension; }
+    }
+
+    public interface Progress {
+        // Called after every chunk from the exporting thread; return false to cancel
+        boolean update(long rowsDone, long rowsTotal);
+    }
+
+    private static final int CHUNK_ROWS = 8192;
+    private static final int ROW_GROUP_ROWS = 65_536;
+    private static final int ROW_GROUP_BYTES = 4 << 20;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int MAGIC = 0x4D544346; // "MTCF"
+    private static final int VERSION = 1;
+
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte STRING = 3;
+
+    private final TaskController taskController;
+    private final EmployeeController employeeController;
+    private final GroupController groupController;
+
+    public DataExporter(TaskController taskController, EmployeeController employeeController,
+                        GroupController groupController) {
+        this.taskController = taskController;
+        this.employeeController = employeeController;
+        this.groupController = groupController;
+    }
+
+    // Writes every table into the directory, replacing files of the same name. A cancelled or
+    // failed export leaves earlier files in place. Returns the number of rows written.
+    public long export(Path directory, Format format, Progress progress) throws IOException, InterruptedException {
+        List<Table> tables = List.of(new TaskTable(), new EmployeeTable(), new GroupTable(), new MemberTable());
+
+        long[] total = {0};
+        onEdt(() -> {
+            for (Table t : tables) total[0] += t.size();
+        });
+
+        long done = 0;
+        for (Table table : tables) {
+            Path target = directory.resolve(table.name + format.getExtension());
+            Path partial = directory.resolve(table.name + format.getExtension() + ".part");
+            try {
+                long rows = write(table, partial, format, done, total[0], progress);
+                if (rows < 0) return done;
+                done += rows;
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(partial);
+            }
+        }
+
+        return done;
+    }
+
+    // Helper Methods
+
+    // Returns the rows written, or -1 if cancelled
+    private long write(Table table, Path file, Format format, long before, long total, Progress progress)
+            throws IOException, InterruptedException {
+        Object[] chunk = new Object[CHUNK_ROWS * table.columns.length];
+        long rows = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Sink sink = format == Format.CSV ? new CsvSink(channel, table) : new ColumnarSink(channel, table);
+            while (true) {
+                int[] read = {0};
+                onEdt(() -> read[0] = table.read(chunk, CHUNK_ROWS));
+                if (read[0] == 0) break;
+
+                for (int r = 0; r < read[0]; r++) {
+                    sink.row(chunk, r * table.columns.length);
+                }
+                Arrays.fill(chunk, null); // Let go of this chunk's values before reading the next
+                rows += read[0];
+                if (progress != null && !progress.update(before + rows, Math.max(total, before + rows))) return -1;
+            }
+            sink.finish();
+        }
+        return rows;
+    }
+
+    private static void onEdt(Runnable action) throws InterruptedException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            action.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(action);
+        }
+        catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // One exported table. size() and read() run on the EDT; read() copies the next rows' values
+    // (String, Integer, Double, LocalDateTime or null) into out, row after row, and returns how
+    // many rows it copied, 0 at the end.
+    private abstract static class Table {
+        private final String name;
+        private final String[] columns;
+        private final byte[] types;
+
+        Table(String name, String[] columns, byte[] types) {
+            this.name = name;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        abstract long size();
+        abstract int read(Object[] out, int maxRows);
+    }
+
+    private class TaskTable extends Table {
+        private int next; // Task id
+
+        TaskTable() {
+            super("tasks",
+                    new String[]{"id", "title", "description", "status", "priority", "due", "assignee", "group"},
+                    new byte[]{INT, STRING, STRING, STRING, STRING, LONG, STRING, STRING});
+        }
+
+        @Override
+        long size() { return taskController.getTasks().size(); }
+
+        @Override
+        int read(Object[] out, int maxRows) {
+            List<Task> tasks = taskController.getTasks();
+            int rows = 0;
+            int at = 0;
+            while (rows < maxRows && next < tasks.size()) {
+                Task t = tasks.get(next++);
+                out[at++] = t.getId();
+                out[at++] = t.getTitle();
+                out[at++] = t.getDescription();
+                out[at++] = t.getStatus() == null ? null : t.getStatus().getName();
+                out[at++] = t.getPriority().toString();
+                out[at++] = t.getDueDate();
+                out[at++] = t.getAssignee() == null ? null : t.getAssignee().getUsername();
+                out[at++] = t.getGroup() == null ? null : t.getGroup().getName();
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private class EmployeeTable extends Table {
+        private String after; // Last username written; the roster can change between chunks
+
+        EmployeeTable() {
+            super("employees",
+                    new String[]{"username", "id", "firstName", "lastName", "streetAddress", "city", "state", "country",
+                            "salary", "hireDate", "birthDate", "department", "role"},
+                    new byte[]{STRING, INT, STRING, STRING, STRING, STRING, STRING, STRING,
+                            DOUBLE, STRING, STRING, STRING, STRING});
+        }
+
+        @Override
+        long size() { return employeeController.getEmployees().size(); }
+
+        @Override
+        int read(Object[] out, int maxRows) {
+            Map<String, Employee> rest = after == null ? employeeController.getEmployees()
+                    : employeeController.getEmployees().tailMap(after, false);
+            int rows = 0;
+            int at = 0;
+            for (Employee e : rest.values()) {
+                if (rows == maxRows) break;
+                out[at++] = e.getUsername();
+                out[at++] = e.getId();
+                out[at++] = e.getFirstName();
+                out[at++] = e.getLastName();
+                out[at++] = e.getStreetAddress();
+                out[at++] = e.getCity();
+                out[at++] = e.getState();
+                out[at++] = e.getCountry();
+                out[at++] = e.getSalary();
+                out[at++] = e.getHireDate();
+                out[at++] = e.getBirthDate();
+                out[at++] = e.getDepartment();
+                out[at++] = e.getRole();
+                after = e.getUsername();
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private class GroupTable extends Table {
+        private int next; // Group id
+
+        GroupTable() {
+            super("groups", new String[]{"id", "name", "members"}, new byte[]{INT, STRING, INT});
+        }
+
+        @Override
+        long size() { return groupController.getGroups().size(); }
+
+        @Override
+        int read(Object[] out, int maxRows) {
+            List<Group> groups = groupController.getGroups();
+            int rows = 0;
+            int at = 0;
+            while (rows < maxRows && next < groups.size()) {
+                Group g = groups.get(next++);
+                out[at++] = g.getId();
+                out[at++] = g.getName();
+                out[at++] = g.getMembers().size();
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private class MemberTable extends Table {
+        private int group;  // Position of the next membership: group id, then place in its member list
+        private int member;
+
+        MemberTable() {
+            super("group_members", new String[]{"group_id", "group", "username"}, new byte[]{INT, STRING, STRING});
+        }
+
+        @Override
+        long size() {
+            long members = 0;
+            for (Group g : groupController.getGroups()) members += g.getMembers().size();
+            return members;
+        }
+
+        @Override
+        int read(Object[] out, int maxRows) {
+            List<Group> groups = groupController.getGroups();
+            int rows = 0;
+            int at = 0;
+            while (rows < maxRows && group < groups.size()) {
+                Group g = groups.get(group);
+                List<Employee> members = g.getMembers();
+                if (member >= members.size()) {
+                    group++;
+                    member = 0;
+                    continue;
+                }
+                out[at++] = g.getId();
+                out[at++] = g.getName();
+                out[at++] = members.get(member++).getUsername();
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private interface Sink {
+        void row(Object[] values, int offset) throws IOException;
+        void finish() throws IOException;
+    }
+
+    // RFC 4180 style: fields with a comma, quote or line break are quoted, quotes doubled
+    private static class CsvSink implements Sink {
+        private final FileChannel channel;
+        private final int columns;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final Bytes field = new Bytes(); // The field being written, as UTF-8
+
+        CsvSink(FileChannel channel, Table table) throws IOException {
+            this.channel = channel;
+            this.columns = table.columns.length;
+            for (int c = 0; c < columns; c++) {
+                if (c > 0) put((byte) ',');
+                text(table.columns[c]);
+            }
+            put((byte) '\n');
+        }
+
+        @Override
+        public void row(Object[] values, int offset) throws IOException {
+            for (int c = 0; c < columns; c++) {
+                if (c > 0) put((byte) ',');
+                Object v = values[offset + c];
+                if (v instanceof String) text((String) v);
+                else if (v instanceof Integer) number((Integer) v);
+                else if (v instanceof Double) decimal((Double) v);
+                else if (v instanceof LocalDateTime) time((LocalDateTime) v);
+            }
+            put((byte) '\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            flush();
+        }
+
+        private void text(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char ch = s.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+
+            // No byte of a multi-byte UTF-8 sequence is a quote, so doubling quotes byte-wise is safe
+            field.putUtf8(s);
+            if (quote) put((byte) '"');
+            for (int i = 0; i < field.size; i++) {
+                byte b = field.bytes[i];
+                if (b == '"') put((byte) '"');
+                put(b);
+            }
+            if (quote) put((byte) '"');
+            field.clear();
+        }
+
+        private void number(long n) throws IOException {
+            if (n < 0) {
+                put((byte) '-');
+                if (n == Long.MIN_VALUE) {
+                    text("9223372036854775808");
+                    return;
+                }
+                n = -n;
+            }
+            long divisor = 1;
+            while (n / divisor >= 10) divisor *= 10;
+            for (; divisor > 0; divisor /= 10) put((byte) ('0' + n / divisor % 10));
+        }
+
+        // Two decimal places; the only decimal column is salary
+        private void decimal(double d) throws IOException {
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                text(Double.toString(d));
+                return;
+            }
+            long cents = Math.round(Math.abs(d) * 100);
+            if (d < 0 && cents != 0) put((byte) '-');
+            number(cents / 100);
+            put((byte) '.');
+            put((byte) ('0' + cents / 10 % 10));
+            put((byte) ('0' + cents % 10));
+        }
+
+        // yyyy-MM-dd HH:mm, as TaskImporter and the due date field read it
+        private void time(LocalDateTime t) throws IOException {
+            number(t.getYear());
+            put((byte) '-');
+            twoDigits(t.getMonthValue());
+            put((byte) '-');
+            twoDigits(t.getDayOfMonth());
+            put((byte) ' ');
+            twoDigits(t.getHour());
+            put((byte) ':');
+            twoDigits(t.getMinute());
+        }
+
+        private void twoDigits(int n) throws IOException {
+            put((byte) ('0' + n / 10));
+            put((byte) ('0' + n % 10));
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(b);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    // Buffers one row group per column, then writes the columns one after another
+    private static class ColumnarSink implements Sink {
+        private final FileChannel channel;
+        private final byte[] types;
+        private final Bytes[] data;    // Per column: fixed-width values, or a string column's lengths
+        private final Bytes[] strings; // Per string column: the UTF-8 bytes
+        private final ByteBuffer header = ByteBuffer.allocate(8);
+        private int rows;
+        private int buffered; // Bytes held across data and strings for the current row group
+        private int rowGroups;
+        private long totalRows;
+
+        ColumnarSink(FileChannel channel, Table table) throws IOException {
+            this.channel = channel;
+            this.types = table.types;
+            data = new Bytes[types.length];
+            strings = new Bytes[types.length];
+            for (int c = 0; c < types.length; c++) {
+                data[c] = new Bytes();
+                if (types[c] == STRING) strings[c] = new Bytes();
+            }
+
+            Bytes head = new Bytes();
+            head.putInt(MAGIC);
+            head.putInt(VERSION);
+            head.putInt(types.length);
+            for (int c = 0; c < types.length; c++) {
+                byte[] name = table.columns[c].getBytes(StandardCharsets.UTF_8);
+                head.putInt(name.length);
+                head.put(name, name.length);
+                head.put(types[c]);
+            }
+            head.writeTo(channel);
+        }
+
+        @Override
+        public void row(Object[] values, int offset) throws IOException {
+            for (int c = 0; c < types.length; c++) {
+                Object v = values[offset + c];
+                switch (types[c]) {
+                    case INT: data[c].putInt(v == null ? 0 : (Integer) v); break;
+                    case DOUBLE: data[c].putLong(Double.doubleToLongBits(v == null ? 0 : (Double) v)); break;
+                    case LONG: data[c].putLong(v == null ? Long.MIN_VALUE : ((LocalDateTime) v).toEpochSecond(ZoneOffset.UTC)); break;
+                    default:
+                        if (v == null) {
+                            data[c].putInt(-1);
+                        }
+                        else {
+                            int before = strings[c].size;
+                            strings[c].putUtf8((String) v);
+                            data[c].putInt(strings[c].size - before);
+                            buffered += strings[c].size - before;
+                        }
+                }
+                buffered += types[c] == INT || types[c] == STRING ? 4 : 8;
+            }
+            if (++rows == ROW_GROUP_ROWS || buffered >= ROW_GROUP_BYTES) writeRowGroup();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (rows > 0) writeRowGroup();
+
+            Bytes tail = new Bytes();
+            tail.putInt(rowGroups);
+            tail.putLong(totalRows);
+            tail.putInt(MAGIC);
+            tail.writeTo(channel);
+        }
+
+        private void writeRowGroup() throws IOException {
+            header.clear();
+            header.putInt(rows).flip();
+            write(header);
+
+            for (int c = 0; c < types.length; c++) {
+                int length = data[c].size + (strings[c] == null ? 0 : strings[c].size);
+                header.clear();
+                header.putInt(length).flip();
+                write(header);
+
+                data[c].writeTo(channel);
+                if (strings[c] != null) strings[c].writeTo(channel);
+            }
+
+            totalRows += rows;
+            rowGroups++;
+            rows = 0;
+            buffered = 0;
+        }
+
+        private void write(ByteBuffer b) throws IOException {
+            while (b.hasRemaining()) channel.write(b);
+        }
+    }
+
+    // Growable byte array that is emptied, not freed, after each write
+    private static class Bytes {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+        }
+
+        void put(byte[] b, int length) {
+            ensure(length);
+            System.arraycopy(b, 0, bytes, size, length);
+            size += length;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            bytes[size++] = (byte) (v >>> 24);
+            bytes[size++] = (byte) (v >>> 16);
+            bytes[size++] = (byte) (v >>> 8);
+            bytes[size++] = (byte) v;
+        }
+
+        void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        // Encoded by hand so no byte[] is allocated per value; both sinks go through here
+        void putUtf8(String s) {
+            ensure(s.length() * 3);
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                if (ch < 0x80) {
+                    bytes[size++] = (byte) ch;
+                }
+                else if (ch < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | ch >> 6);
+                    bytes[size++] = (byte) (0x80 | ch & 0x3F);
+                }
+                else if (Character.isHighSurrogate(ch) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(ch, s.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | cp >> 18);
+                    bytes[size++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | cp & 0x3F);
+                }
+                else if (Character.isSurrogate(ch)) {
+                    bytes[size++] = (byte) '?'; // Unpaired, as String.getBytes would do
+                }
+                else {
+                    bytes[size++] = (byte) (0xE0 | ch >> 12);
+                    bytes[size++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | ch & 0x3F);
+                }
+            }
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer b = ByteBuffer.wrap(bytes, 0, size);
+            while (b.hasRemaining()) channel.write(b);
+            size = 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(size + extra, bytes.length * 2));
+        }
+    }
+
+}
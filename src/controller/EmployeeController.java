@@ -1,80 +1,230 @@
 package controller;
 
 import model.Employee;
-
-import java.io.BufferedReader;
-import java.io.FileReader;
+import model.IdSet;
+import model.RosterListener;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 
 public class EmployeeController {
 
+    private static final String ROSTER_PATH = "src/data/employees.csv";
+    private static final String SNAPSHOT_PATH = "src/data/employees.snapshot";
+
+    private final ChangeBus changeBus;
+    private RosterListener listener;
     private Employee currentUser;
 
     private TreeMap<String, Employee> employees = new TreeMap<>();
     private TreeMap<String, Employee> managers = new TreeMap<>(); // A subset of employees, distinct from laborers
     private TreeMap<String, Employee> laborers = new TreeMap<>(); // A subset of employees, distinct from managers
+    private List<Employee> byRosterIndex = new ArrayList<>(); // Everyone ever on the roster, by Employee.getRosterIndex()
+    private final EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(); // Built by buildSearchIndex()
+
+    // Hot reload state, owned by the watcher thread after watchRoster()
+    private RosterWatcher rosterWatcher;
+    private RosterSnapshot.Fingerprint csvFingerprint;
+    private Map<String, Employee> csvRows; // Last CSV contents by username
 
-    public EmployeeController() {
+    public EmployeeController(ChangeBus changeBus) {
+        this.changeBus = changeBus;
         loadEmployees();
     }
 
     private void loadEmployees() {
-        System.out.println("Loading employees from src/data/employees.csv");
+        Path csv = Path.of(ROSTER_PATH);
+        RosterSnapshot.Fingerprint fingerprint = null;
+
+        // Prefer the binary snapshot when it was built from this exact CSV
+        try {
+            long start = System.nanoTime();
+            fingerprint = RosterSnapshot.Fingerprint.of(csv);
+            RosterSnapshot.Roster roster = new RosterSnapshot(Path.of(SNAPSHOT_PATH)).read(fingerprint);
+
+            if (roster != null) {
+                employees = roster.getEmployees();
+                managers = roster.getManagers();
+                laborers = roster.getLaborers();
+                csvFingerprint = fingerprint;
+                employees.values().forEach(this::assignRosterIndex);
+                System.out.println("Loaded " + employees.size() + " employees from " + SNAPSHOT_PATH
+                        + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return;
+            }
+            System.out.println("Roster snapshot missing or stale, falling back to CSV");
+        }
+        catch (Exception e) {
+            System.out.println("Roster snapshot unusable, falling back to CSV: " + e.getMessage());
+        }
+
+        System.out.println("Loading employees from " + ROSTER_PATH);
+
+        try {
+            RosterLoader.Result result = new RosterLoader().load(csv);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader("src/data/employees.csv"))) {
-            String line = reader.readLine(); // Skip header
-            if (line == null) return;
+            // Merge in file order so a repeated username keeps its last row, as before
+            for (Employee e : result.getEmployees()) {
+                addToRoster(e);
+            }
 
-            while ((line = reader.readLine()) != null) {
-                // Handle completely empty lines
-                if (line.trim().isEmpty()) continue;
+            System.out.println(result);
+        }
+        catch (Exception e) {
+            System.out.println("Failed to load employees: " + e.getMessage());
+            return;
+        }
 
-                String[] cols = line.split(",", -1); // -1 keeps empty fields
+        csvFingerprint = fingerprint;
+        if (fingerprint != null) {
+            RosterSnapshot.Fingerprint loaded = fingerprint;
+            List<Employee> sorted = new ArrayList<>(employees.values());
 
-                // Require username, password, role
-                String username = safe(cols, 0);
-                String password = safe(cols, 1);
-                String firstName = safe(cols, 3);
-                String lastName  = safe(cols, 4);
-                String department = safe(cols, 12);
-                String role      = safe(cols, 13);
+            // Written off the startup path from a copy, so later roster edits cannot race the writer
+            Thread writer = new Thread(() -> writeSnapshot(loaded, sorted), "roster-snapshot-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
 
-                if (username.isEmpty() || password.isEmpty() || firstName.isEmpty() || lastName.isEmpty() || department.isEmpty() || role.isEmpty()) {
-                    System.out.println("Skipping invalid row: missing required fields");
-                    continue;
-                }
+    private void writeSnapshot(RosterSnapshot.Fingerprint fingerprint, List<Employee> sorted) {
+        List<Employee> managerList = new ArrayList<>();
+        List<Employee> laborerList = new ArrayList<>();
+        for (Employee e : sorted) {
+            if (e.getRole().equalsIgnoreCase("Manager")) managerList.add(e);
+            else if (e.getRole().equalsIgnoreCase("Laborer")) laborerList.add(e);
+        }
+
+        try {
+            long start = System.nanoTime();
+            new RosterSnapshot(Path.of(SNAPSHOT_PATH)).write(fingerprint, sorted, managerList, laborerList);
+            System.out.println("Wrote roster snapshot in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        catch (Exception e) {
+            System.out.println("Failed to write roster snapshot: " + e.getMessage());
+        }
+    }
+
+    // Told about every roster change after startup, on the EDT, before it is published
+    public void setListener(RosterListener listener) {
+        this.listener = listener;
+    }
+
+    // Reloads the CSV in the background whenever it changes. Only rows that differ are applied,
+    // on the EDT, and each applied row is published so the UI can patch itself.
+    public void watchRoster() {
+        csvRows = new HashMap<>(employees);
+        rosterWatcher = new RosterWatcher(Path.of(ROSTER_PATH), this::reloadRoster);
+
+        try {
+            rosterWatcher.start();
+        }
+        catch (Exception e) {
+            System.out.println("Failed to watch " + ROSTER_PATH + ": " + e.getMessage());
+        }
+    }
+
+    public void stopWatchingRoster() {
+        if (rosterWatcher != null) rosterWatcher.close();
+    }
+
+    // Runs on the watcher thread; never touches the live maps
+    private void reloadRoster() {
+        try {
+            Path csv = Path.of(ROSTER_PATH);
+            RosterSnapshot.Fingerprint fingerprint = RosterSnapshot.Fingerprint.of(csv);
+            if (fingerprint.matches(csvFingerprint)) return;
+
+            long start = System.nanoTime();
+            RosterLoader.Result result = new RosterLoader().load(csv);
 
-                // Optional fields with default fallback
-                int id = parseIntSafe(safe(cols, 2));
-                String street    = safe(cols, 5);
-                String city      = safe(cols, 6);
-                String state     = safe(cols, 7);
-                String country   = safe(cols, 8);
-                double salary = parseDoubleSafe(safe(cols, 9));
-                String hireDate = safe(cols, 10);
-                String birthDate = safe(cols, 11);
-
-                Employee e = new Employee(username, password, id, firstName, lastName,
-                        street, city, state, country, salary, hireDate, birthDate, department, role);
-
-                // Add to master list
-                employees.put(username, e);
-
-                // Add to subsets
-                if (role.equalsIgnoreCase("Manager")) {
-                    managers.put(username, e);
+            Map<String, Employee> rows = new HashMap<>();
+            for (Employee e : result.getEmployees()) {
+                rows.put(e.getUsername(), e);
+            }
+
+            // Diff against the previous CSV contents; unchanged rows keep their existing instance
+            RosterDelta delta = new RosterDelta();
+            for (Map.Entry<String, Employee> entry : rows.entrySet()) {
+                Employee previous = csvRows.get(entry.getKey());
+                if (previous == null) {
+                    delta.getAdded().add(entry.getValue());
+                }
+                else if (!previous.sameDetails(entry.getValue())) {
+                    delta.getChanged().add(entry.getValue());
                 }
-                else if (role.equalsIgnoreCase("Laborer")) {
-                    laborers.put(username, e);
+                else {
+                    entry.setValue(previous);
                 }
             }
+            for (Employee previous : csvRows.values()) {
+                if (!rows.containsKey(previous.getUsername())) delta.getRemoved().add(previous);
+            }
+
+            csvRows = rows;
+            csvFingerprint = fingerprint;
+            System.out.println(result + "; reload delta: " + delta + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
 
+            if (!delta.isEmpty()) {
+                SwingUtilities.invokeLater(() -> applyDelta(delta));
+            }
+
+            List<Employee> sorted = new ArrayList<>(rows.values());
+            Collections.sort(sorted);
+            writeSnapshot(fingerprint, sorted);
         }
         catch (Exception e) {
-            System.out.println("Failed to load employees: " + e.getMessage());
+            System.out.println("Failed to reload employees: " + e.getMessage());
         }
     }
 
+    // Applies a parsed delta to the live maps. Existing Employee instances are updated in place
+    // so references held by Tasks and Groups stay valid.
+    private void applyDelta(RosterDelta parsed) {
+        for (Employee row : parsed.getAdded()) {
+            applyRow(row);
+        }
+        for (Employee row : parsed.getChanged()) {
+            applyRow(row);
+        }
+        for (Employee row : parsed.getRemoved()) {
+            Employee live = employees.remove(row.getUsername());
+            if (live == null) continue;
+
+            managers.remove(live.getUsername());
+            laborers.remove(live.getUsername());
+            if (searchIndex.isBuilt()) searchIndex.remove(live);
+            if (listener != null) listener.employeeRemoved(live);
+            changeBus.publish(ChangeEvent.employee(ChangeEvent.Kind.EMPLOYEE_REMOVED, live));
+        }
+    }
+
+    private void applyRow(Employee row) {
+        Employee live = employees.get(row.getUsername());
+        if (live == null) {
+            addToRoster(row);
+            if (searchIndex.isBuilt()) searchIndex.add(row);
+            if (listener != null) listener.employeeAdded(row);
+            changeBus.publish(ChangeEvent.employee(ChangeEvent.Kind.EMPLOYEE_ADDED, row));
+            return;
+        }
+
+        // Role may have changed, so re-file it in the subsets
+        managers.remove(live.getUsername());
+        laborers.remove(live.getUsername());
+        live.updateFrom(row);
+        addToRoster(live);
+        if (searchIndex.isBuilt()) searchIndex.update(live);
+        if (listener != null) listener.employeeChanged(live);
+        changeBus.publish(ChangeEvent.employee(ChangeEvent.Kind.EMPLOYEE_CHANGED, live));
+    }
+
     // Return -1 if invalid, 0 if a valid Manager, or 1 if a valid Laborer
     public int validateLogin(String username, String password) {
         // Look up the employee
@@ -120,6 +270,7 @@ public class EmployeeController {
         );
 
         // Add to collections
+        assignRosterIndex(e);
         employees.put(username, e);
 
         if ("Manager".equalsIgnoreCase(role)) {
@@ -128,6 +279,10 @@ public class EmployeeController {
         else {
             laborers.put(username, e);
         }
+
+        if (searchIndex.isBuilt()) searchIndex.add(e);
+        if (listener != null) listener.employeeAdded(e);
+        changeBus.publish(ChangeEvent.employee(ChangeEvent.Kind.EMPLOYEE_ADDED, e));
     }
 
     public Employee getCurrentUser() {
@@ -142,20 +297,61 @@ public class EmployeeController {
         return managers;
     }
 
-    // Helper Methods
+    public Employee getByRosterIndex(int index) {
+        return byRosterIndex.get(index);
+    }
 
-    private String safe(String[] arr, int index) {
-        return (index < arr.length) ? arr[index].trim() : "";
+    // Roster indexes handed out so far; every index is below this
+    public int getRosterIndexCount() {
+        return byRosterIndex.size();
     }
 
-    private int parseIntSafe(String s) {
-        try { return Integer.parseInt(s); }
-        catch (Exception e) { return 0; }
+    // Indexes the roster for search(). Takes a few seconds on a large roster, so the startup worker
+    // calls it off the EDT, before the roster can change; from then on the index is kept up to date.
+    public void buildSearchIndex() {
+        searchIndex.build(employees.values());
     }
 
-    private double parseDoubleSafe(String s) {
-        try { return Double.parseDouble(s); }
-        catch (Exception e) { return 0.0; }
+    // Current employees with a word in their username, first name, last name or department starting
+    // with each word of the query, at most limit of them; none until buildSearchIndex() has run.
+    // Each keystroke costs a short walk down a trie.
+    public List<Employee> search(String query, int limit) {
+        if (!searchIndex.isBuilt()) return Collections.emptyList();
+
+        List<Employee> found = new ArrayList<>();
+        for (int index : searchIndex.search(query, limit, null)) found.add(byRosterIndex.get(index));
+        return found;
+    }
+
+    // Resolves a set of roster indexes, such as a Group union or intersection, in index order
+    public List<Employee> resolve(IdSet ids) {
+        List<Employee> resolved = new ArrayList<>(ids.size());
+        ids.forEach(i -> resolved.add(byRosterIndex.get(i)));
+        return resolved;
+    }
+
+    // Helper Methods
+
+    private void addToRoster(Employee e) {
+        assignRosterIndex(e);
+
+        // Add to master list
+        employees.put(e.getUsername(), e);
+
+        // Add to subsets
+        if (e.getRole().equalsIgnoreCase("Manager")) {
+            managers.put(e.getUsername(), e);
+        }
+        else if (e.getRole().equalsIgnoreCase("Laborer")) {
+            laborers.put(e.getUsername(), e);
+        }
+    }
+
+    private void assignRosterIndex(Employee e) {
+        if (e.getRosterIndex() >= 0) return;
+
+        e.setRosterIndex(byRosterIndex.size());
+        byRosterIndex.add(e);
     }
 
 }
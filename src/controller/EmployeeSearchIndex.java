@@ -0,0 +1,358 @@
+package controller;
+
+import model.Employee;
+import model.IdSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+// Prefix index over the words of each employee's username, first name, last name and department,
+// for type-ahead lookups. It is a burst trie: words sit in small sorted containers, and a
+// container that outgrows BURST splits into a trie node with one container per next character.
+// Only busy prefixes ever become nodes, so the trie stays shallow, and a word shared by many
+// employees (a department) ends up as one node holding a set of roster indexes. A lookup walks
+// down one character per node, then reads matches in word order and stops after the first few,
+// so its cost depends on the prefix and the limit rather than on the size of the roster.
+class EmployeeSearchIndex {
+
+    private static final int BURST = 256;
+
+    private static class Node {
+        int count;                       // Entries at or below this node
+        final IdSet exact = new IdSet(); // Roster indexes whose word ends at this node
+        char[] labels = new char[0];     // Next character, sorted
+        Object[] children = new Object[0]; // Node or Container, parallel to labels
+    }
+
+    // Words and roster indexes, ordered by word and then index
+    private static class Container {
+        String[] words = new String[8];
+        int[] ids = new int[8];
+        int size;
+
+        int find(String word, int id) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = words[mid].compareTo(word);
+                if (cmp == 0) cmp = Integer.compare(ids[mid], id);
+                if (cmp < 0) low = mid + 1;
+                else if (cmp > 0) high = mid - 1;
+                else return mid;
+            }
+            return -(low + 1);
+        }
+
+        // Keeps the order; append() and sort() are cheaper for many words at once
+        void add(String word, int id) {
+            int at = find(word, id);
+            if (at >= 0) return;
+            at = -at - 1;
+
+            if (size == words.length) {
+                words = Arrays.copyOf(words, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(words, at, words, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            words[at] = word;
+            ids[at] = id;
+            size++;
+        }
+
+        void append(String word, int id) {
+            if (size == words.length) {
+                words = Arrays.copyOf(words, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            words[size] = word;
+            ids[size] = id;
+            size++;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int cmp = words[a].compareTo(words[b]);
+                return cmp != 0 ? cmp : Integer.compare(ids[a], ids[b]);
+            });
+
+            String[] sortedWords = new String[words.length];
+            int[] sortedIds = new int[ids.length];
+            for (int i = 0; i < size; i++) {
+                sortedWords[i] = words[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            words = sortedWords;
+            ids = sortedIds;
+        }
+
+        boolean remove(String word, int id) {
+            int at = find(word, id);
+            if (at < 0) return false;
+
+            System.arraycopy(words, at + 1, words, at, size - at - 1);
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            words[size] = null;
+            return true;
+        }
+    }
+
+    private final Node root = new Node();
+    private String[][] indexed = new String[0][]; // Words each roster index was indexed under
+    private volatile boolean built;
+    private boolean loading; // During build(), containers are filled unordered and sorted at the end
+
+    boolean isBuilt() { return built; }
+
+    void build(Collection<Employee> roster) {
+        loading = true;
+        for (Employee e : roster) add(e);
+        loading = false;
+        sortAll(root);
+        built = true;
+    }
+
+    void add(Employee e) {
+        int index = e.getRosterIndex();
+        if (index >= indexed.length) indexed = Arrays.copyOf(indexed, Math.max(index + 1, indexed.length * 2));
+
+        // Kept so the words can be found again after the Employee is updated in place, and so
+        // candidates can be checked against the other query words without re-reading the fields
+        String[] words = words(e);
+        indexed[index] = words;
+        for (String word : words) insert(root, 0, word, index);
+    }
+
+    void update(Employee e) {
+        remove(e);
+        add(e);
+    }
+
+    void remove(Employee e) {
+        int index = e.getRosterIndex();
+        if (index >= indexed.length || indexed[index] == null) return;
+
+        for (String word : indexed[index]) delete(word, index);
+        indexed[index] = null;
+    }
+
+    // Up to limit roster indexes that have a word starting with every query word, in the order
+    // of their words matching the rarest query word; accept can reject candidates (null for all)
+    List<Integer> search(String query, int limit, IntPredicate accept) {
+        List<Integer> results = new ArrayList<>();
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TaskSearchIndex.tokenize(query)));
+        if (words.isEmpty() || limit <= 0) return results;
+
+        // Walk the matches of the rarest word and check the others against each candidate's words
+        String rarest = words.get(0);
+        int fewest = Integer.MAX_VALUE;
+        for (String word : words) {
+            int count = count(word);
+            if (count == 0) return results;
+            if (count < fewest) {
+                fewest = count;
+                rarest = word;
+            }
+        }
+        words.remove(rarest);
+
+        Set<Integer> seen = new LinkedHashSet<>();
+        visit(rarest, index -> {
+            if (!seen.add(index)) return true;
+            if (!words.isEmpty() && !hasAll(indexed[index], words)) return true;
+            if (accept != null && !accept.test(index)) return true;
+
+            results.add(index);
+            return results.size() < limit;
+        });
+        return results;
+    }
+
+    // Helper Methods
+
+    private void insert(Node node, int depth, String word, int id) {
+        while (true) {
+            node.count++;
+            if (depth == word.length()) {
+                node.exact.add(id);
+                return;
+            }
+
+            int at = Arrays.binarySearch(node.labels, word.charAt(depth));
+            if (at < 0) {
+                Container container = new Container();
+                container.append(word, id);
+                addChild(node, -at - 1, word.charAt(depth), container);
+                return;
+            }
+
+            Object child = node.children[at];
+            if (child instanceof Node) {
+                node = (Node) child;
+                depth++;
+                continue;
+            }
+
+            Container container = (Container) child;
+            if (loading) container.append(word, id);
+            else container.add(word, id);
+            if (container.size > BURST) node.children[at] = burst(container, depth + 1);
+            return;
+        }
+    }
+
+    // Replaces a container of words that share their first depth characters with a node
+    private Node burst(Container container, int depth) {
+        Node node = new Node();
+        for (int i = 0; i < container.size; i++) {
+            insert(node, depth, container.words[i], container.ids[i]);
+        }
+        return node;
+    }
+
+    private static void sortAll(Node node) {
+        for (Object child : node.children) {
+            if (child instanceof Node) sortAll((Node) child);
+            else ((Container) child).sort();
+        }
+    }
+
+    private static void addChild(Node node, int at, char label, Object child) {
+        int n = node.labels.length;
+        char[] labels = new char[n + 1];
+        Object[] children = new Object[n + 1];
+        System.arraycopy(node.labels, 0, labels, 0, at);
+        System.arraycopy(node.children, 0, children, 0, at);
+        labels[at] = label;
+        children[at] = child;
+        System.arraycopy(node.labels, at, labels, at + 1, n - at);
+        System.arraycopy(node.children, at, children, at + 1, n - at);
+        node.labels = labels;
+        node.children = children;
+    }
+
+    // Emptied nodes and containers are left in place; they cost nothing to skip
+    private void delete(String word, int id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int depth = 0;
+        boolean removed = false;
+        while (true) {
+            path.add(node);
+            if (depth == word.length()) {
+                removed = node.exact.remove(id);
+                break;
+            }
+
+            int at = Arrays.binarySearch(node.labels, word.charAt(depth));
+            if (at < 0) break;
+            Object child = node.children[at];
+            if (child instanceof Container) {
+                removed = ((Container) child).remove(word, id);
+                break;
+            }
+            node = (Node) child;
+            depth++;
+        }
+        if (removed) path.forEach(n -> n.count--);
+    }
+
+    // Entries under a prefix; a prefix ending inside a container is counted by scanning it
+    private int count(String prefix) {
+        Node node = root;
+        for (int depth = 0; depth < prefix.length(); depth++) {
+            int at = Arrays.binarySearch(node.labels, prefix.charAt(depth));
+            if (at < 0) return 0;
+
+            Object child = node.children[at];
+            if (child instanceof Container) {
+                Container container = (Container) child;
+                int count = 0;
+                for (int i = from(container, prefix); i < container.size && container.words[i].startsWith(prefix); i++) count++;
+                return count;
+            }
+            node = (Node) child;
+        }
+        return node.count;
+    }
+
+    // Feeds every roster index with a word starting with prefix to visitor, until it returns false
+    private void visit(String prefix, IntPredicate visitor) {
+        Node node = root;
+        for (int depth = 0; depth < prefix.length(); depth++) {
+            int at = Arrays.binarySearch(node.labels, prefix.charAt(depth));
+            if (at < 0) return;
+
+            Object child = node.children[at];
+            if (child instanceof Container) {
+                Container container = (Container) child;
+                for (int i = from(container, prefix); i < container.size && container.words[i].startsWith(prefix); i++) {
+                    if (!visitor.test(container.ids[i])) return;
+                }
+                return;
+            }
+            node = (Node) child;
+        }
+        visitAll(node, visitor);
+    }
+
+    private boolean visitAll(Node node, IntPredicate visitor) {
+        if (node.count == 0) return true;
+
+        if (!node.exact.forEachWhile(visitor)) return false;
+
+        for (Object child : node.children) {
+            if (child instanceof Node) {
+                if (!visitAll((Node) child, visitor)) return false;
+            }
+            else {
+                Container container = (Container) child;
+                for (int i = 0; i < container.size; i++) {
+                    if (!visitor.test(container.ids[i])) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // First position whose word is not below prefix
+    private static int from(Container container, String prefix) {
+        int at = container.find(prefix, Integer.MIN_VALUE);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    // Distinct words of the searched fields, usually a handful
+    private static String[] words(Employee e) {
+        List<String> words = new ArrayList<>(6);
+        for (String field : new String[]{e.getUsername(), e.getFirstName(), e.getLastName(), e.getDepartment()}) {
+            for (String word : TaskSearchIndex.tokenize(field)) {
+                if (!words.contains(word)) words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static boolean hasAll(String[] words, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+}
@@ -4,28 +4,283 @@ import model.*;
 import view.ManagementFrame;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
-public class GroupController {
+// Groups can contain other groups; a member of a subgroup counts as a member of every group above
+// it. The transitive closure is kept up to date as edges and members are added, never rebuilt:
+// each group has the ids of the groups above and below it and the roster indexes of everyone in
+// it at any depth. Adding a subgroup merges those sets in place along the new edge only, skipping
+// groups the subgroup was already under by another path, and refuses the edge if it would close a
+// cycle (a single lookup in the parent's ancestors).
+//
+// Each employee's effective groups (direct plus everything above them) are memoized, and only the
+// entries of employees under a changed group are dropped, so task views ask for them freely.
+//
+// A dynamic group's members are whoever its GroupRule matches. They are worked out once when the
+// rule is set, then kept up to date as the roster changes: a RuleIndex points each joining or
+// changed employee at the few rules that could match them.
+public class GroupController implements GroupListener, RosterListener {
 
-    private List<Group> groups = new ArrayList<>();
+    private List<Group> groups = new ArrayList<>(); // Indexed by group id
+    private List<List<Group>> directGroups = new ArrayList<>(); // Direct membership by roster index; null when none
+
+    // By group id: groups above and below (not including itself), and everyone in it at any depth
+    private List<IdSet> ancestors = new ArrayList<>();
+    private List<IdSet> descendants = new ArrayList<>();
+    private List<IdSet> allMembers = new ArrayList<>();
+
+    // Effective groups by roster index, built on first use; null when not cached
+    private List<Set<Group>> effectiveGroups = new ArrayList<>();
+
+    private final EmployeeController employeeController;
+    private final RuleIndex rules = new RuleIndex(); // Built with the roster in the constructor
+    private Group materialising; // Set while a rule's members are filled in, so they are published as one change
+
+    private GroupListener listener;
+    private final ChangeBus changeBus;
 
     public GroupController(ManagementFrame managementFrame) {
-        Group admins = new Group("Admins");
-        for (Employee e : managementFrame.getEmployeeController().getManagers().values()) {
+        this(managementFrame.getEmployeeController(), managementFrame.getChangeBus());
+    }
+
+    // Without a frame, for tools such as the benchmarks under bench/
+    GroupController(EmployeeController employeeController, ChangeBus changeBus) {
+        this.changeBus = changeBus;
+        this.employeeController = employeeController;
+
+        Group admins = new Group(0, "Admins");
+        addClosure();
+        groups.add(admins);
+        admins.setListener(this);
+        for (Employee e : employeeController.getManagers().values()) {
             admins.addEmployee(e);
         }
-        groups.add(admins);
+
+        // Built here, on the startup worker, so setting the first rule doesn't stall the EDT
+        rules.build(employeeController.getEmployees().values());
+        employeeController.setListener(this);
     }
 
     public Group createGroup(String name) {
-        Group g = new Group(name);
+        Group g = new Group(groups.size(), name);
+        g.setListener(this);
+        addClosure();
         groups.add(g);
+
+        groupCreated(g);
+        return g;
+    }
+
+    // A group whose members are exactly the employees the rule matches, now and as the roster changes
+    public Group createGroup(String name, GroupRule rule) {
+        Group g = createGroup(name);
+        g.setRule(rule);
         return g;
     }
 
+    // Makes every member of subgroup, at any depth, a member of group too. Throws if the nesting
+    // would make a group contain itself; returns false if subgroup is already directly inside group.
+    public boolean addSubgroup(Group group, Group subgroup) {
+        if (group == subgroup || ancestors.get(group.getId()).contains(subgroup.getId())) {
+            throw new IllegalArgumentException(subgroup.getName() + " already contains " + group.getName()
+                    + "; nesting it inside would make a cycle");
+        }
+        return group.addSubgroup(subgroup); // subgroupAdded() updates the closure
+    }
+
+    // Receives group creation and membership changes from now on
+    public void setListener(GroupListener listener) {
+        this.listener = listener;
+    }
+
+    // Groups the employee belongs to directly or through a subgroup, memoized
+    public Set<Group> getGroupsOf(Employee e) {
+        int index = e.getRosterIndex();
+        if (index < 0) return Collections.emptySet();
+
+        while (effectiveGroups.size() <= index) effectiveGroups.add(null);
+        Set<Group> effective = effectiveGroups.get(index);
+        if (effective == null) {
+            List<Group> direct = getDirectGroupsOf(e);
+            if (direct.isEmpty()) {
+                effective = Collections.emptySet();
+            }
+            else {
+                Set<Group> all = new LinkedHashSet<>(direct);
+                for (Group g : direct) ancestors.get(g.getId()).forEach(id -> all.add(groups.get(id)));
+                effective = Collections.unmodifiableSet(all);
+            }
+            effectiveGroups.set(index, effective);
+        }
+        return effective;
+    }
+
+    // Groups the employee has been added to themselves
+    public List<Group> getDirectGroupsOf(Employee e) {
+        int index = e.getRosterIndex();
+        List<Group> direct = index >= 0 && index < directGroups.size() ? directGroups.get(index) : null;
+        return direct == null ? Collections.emptyList() : Collections.unmodifiableList(direct);
+    }
+
+    // Roster indexes of everyone in the group, directly or through subgroups
+    public IdSet getAllMembers(Group g) {
+        return allMembers.get(g.getId()).copy();
+    }
+
+    public boolean isMember(Group g, Employee e) {
+        return allMembers.get(g.getId()).contains(e.getRosterIndex());
+    }
+
+    // Every group nested inside g at any depth
+    public List<Group> getAllSubgroups(Group g) {
+        List<Group> result = new ArrayList<>();
+        descendants.get(g.getId()).forEach(id -> result.add(groups.get(id)));
+        return result;
+    }
+
+    @Override
+    public void groupCreated(Group group) {
+        if (listener != null) listener.groupCreated(group);
+        changeBus.publish(ChangeEvent.groupCreated(group));
+    }
+
+    @Override
+    public void memberAdded(Group group, Employee member) {
+        // Group.addEmployee() has already refused repeats
+        int index = member.getRosterIndex();
+        while (directGroups.size() <= index) directGroups.add(null);
+        if (directGroups.get(index) == null) directGroups.set(index, new ArrayList<>(2));
+        directGroups.get(index).add(group);
+
+        allMembers.get(group.getId()).add(index);
+        ancestors.get(group.getId()).forEach(id -> allMembers.get(id).add(index));
+        forget(index);
+
+        if (listener != null) listener.memberAdded(group, member);
+        if (group != materialising) changeBus.publish(ChangeEvent.memberAdded(group, member));
+    }
+
+    @Override
+    public void memberRemoved(Group group, Employee member) {
+        int index = member.getRosterIndex();
+        List<Group> direct = directGroups.get(index);
+        direct.remove(group);
+        if (direct.isEmpty()) directGroups.set(index, null);
+
+        // Groups at or above this one keep the member only if another of their groups is under them
+        IdSet up = ancestors.get(group.getId()).copy();
+        up.add(group.getId());
+        up.forEach(id -> {
+            for (Group g : direct) {
+                if (g.getId() == id || descendants.get(id).contains(g.getId())) return;
+            }
+            allMembers.get(id).remove(index);
+        });
+        forget(index);
+
+        if (listener != null) listener.memberRemoved(group, member);
+        if (group != materialising) changeBus.publish(ChangeEvent.memberRemoved(group, member));
+    }
+
+    @Override
+    public void subgroupAdded(Group group, Group subgroup) {
+        // Everything at or above group now sits above everything at or below subgroup
+        IdSet up = ancestors.get(group.getId()).copy();
+        up.add(group.getId());
+        IdSet down = descendants.get(subgroup.getId()).copy();
+        down.add(subgroup.getId());
+
+        // A group already above subgroup through another path has all of this; likewise below group
+        IdSet members = allMembers.get(subgroup.getId());
+        down.forEach(id -> {
+            if (!ancestors.get(id).contains(group.getId())) ancestors.get(id).addAll(up);
+        });
+        up.forEach(id -> {
+            if (descendants.get(id).contains(subgroup.getId())) return;
+            descendants.get(id).addAll(down);
+            allMembers.get(id).addAll(members);
+        });
+        members.forEach(this::forget);
+
+        if (listener != null) listener.subgroupAdded(group, subgroup);
+        changeBus.publish(ChangeEvent.subgroupAdded(group));
+    }
+
+    @Override
+    public void ruleChanged(Group group) {
+        rules.removeRule(group);
+
+        // Journaled before the membership it implies; a group made manual again keeps its members
+        if (listener != null) listener.ruleChanged(group);
+        GroupRule rule = group.getRule();
+        if (rule == null) return;
+
+        rules.addRule(group);
+        IdSet matched = rules.match(rule, employeeController::getByRosterIndex);
+        materialising = group;
+        try {
+            for (Employee e : new ArrayList<>(group.getMembers())) {
+                if (!matched.contains(e.getRosterIndex())) group.removeEmployee(e);
+            }
+            matched.forEach(index -> group.addEmployee(employeeController.getByRosterIndex(index)));
+        }
+        finally {
+            materialising = null;
+        }
+        changeBus.publish(ChangeEvent.membersChanged(group));
+    }
+
+    // Roster changes only reach the dynamic groups whose rules are filed under the employee's values
+
+    @Override
+    public void employeeAdded(Employee e) {
+        rules.add(e);
+        for (Group g : rules.candidates(e)) {
+            if (g.getRule().matches(e)) g.addEmployee(e);
+        }
+    }
+
+    @Override
+    public void employeeChanged(Employee e) {
+        rules.update(e);
+        for (Group g : new ArrayList<>(getDirectGroupsOf(e))) {
+            if (g.isDynamic() && !g.getRule().matches(e)) g.removeEmployee(e);
+        }
+        for (Group g : rules.candidates(e)) {
+            if (g.getRule().matches(e)) g.addEmployee(e);
+        }
+    }
+
+    @Override
+    public void employeeRemoved(Employee e) {
+        rules.remove(e);
+        for (Group g : new ArrayList<>(getDirectGroupsOf(e))) {
+            if (g.isDynamic()) g.removeEmployee(e);
+        }
+    }
+
+    // Built in at startup from the roster's managers; overdue tasks are escalated to its members
+    public Group getAdmins() {
+        return groups.get(0);
+    }
+
     public List<Group> getGroups() {
         return groups;
     }
 
+    // Helper Methods
+
+    private void addClosure() {
+        ancestors.add(new IdSet());
+        descendants.add(new IdSet());
+        allMembers.add(new IdSet());
+    }
+
+    private void forget(int rosterIndex) {
+        if (rosterIndex < effectiveGroups.size()) effectiveGroups.set(rosterIndex, null);
+    }
+
 }
@@ -0,0 +1,445 @@
+package controller;
+
+import model.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Aggregate reports over tasks and the roster: tasks by status, department and group, completions
+// per employee, and pay by department and by role.
+//
+// Each pass splits its list into ranges and runs them on the common fork-join pool. Every range
+// fills its own accumulator, so threads never share a counter; partial results are merged
+// pairwise as the ranges join. Per-employee counts are a dense array by roster index, so the task
+// pass gets one range per core rather than several: fewer arrays to allocate and merge. A report
+// is kept until a change on the ChangeBus (or the completion window moving on) makes it stale.
+//
+// The data is first copied into a Snapshot on the EDT, a single linear pass over plain fields;
+// compute() then works from the copy on a background thread, so the EDT never waits on the pool
+// and nothing changes underneath a pass.
+public class ReportEngine implements ChangeBus.Subscriber {
+
+    public static final int THROUGHPUT_DAYS = 7; // Completions counted over this many days
+    private static final long MAX_AGE_MILLIS = 60_000; // The completion window moves on
+    private static final int COMPLETE = 2; // Position of the built-in "Complete" status
+
+    private final TaskController taskController;
+    private final EmployeeController employeeController;
+    private final GroupController groupController;
+
+    private long version;       // Bumped by every change that could alter a report
+    private Report cached;
+    private long cachedVersion = -1;
+
+    public ReportEngine(TaskController taskController, EmployeeController employeeController,
+                        GroupController groupController, ChangeBus changeBus) {
+        this.taskController = taskController;
+        this.employeeController = employeeController;
+        this.groupController = groupController;
+        changeBus.subscribe(this);
+    }
+
+    public static class Cell {
+        private final TaskStatus status;
+        private final String department; // The assignee's, or null when unassigned
+        private final Group group;       // Or null
+        private final int tasks;
+
+        Cell(TaskStatus status, String department, Group group, int tasks) {
+            this.status = status;
+            this.department = department;
+            this.group = group;
+            this.tasks = tasks;
+        }
+
+        public TaskStatus getStatus() { return status; }
+        public String getDepartment() { return department; }
+        public Group getGroup() { return group; }
+        public int getTasks() { return tasks; }
+    }
+
+    public static class Throughput {
+        private final Employee employee;
+        private final int completed; // Within the last THROUGHPUT_DAYS
+        private final int open;
+
+        Throughput(Employee employee, int completed, int open) {
+            this.employee = employee;
+            this.completed = completed;
+            this.open = open;
+        }
+
+        public Employee getEmployee() { return employee; }
+        public int getCompleted() { return completed; }
+        public int getOpen() { return open; }
+        public double getPerDay() { return completed / (double) THROUGHPUT_DAYS; }
+    }
+
+    public static class Pay {
+        private final String key; // Department or role
+        private final int headcount;
+        private final double total;
+
+        Pay(String key, int headcount, double total) {
+            this.key = key;
+            this.headcount = headcount;
+            this.total = total;
+        }
+
+        public String getKey() { return key; }
+        public int getHeadcount() { return headcount; }
+        public double getTotal() { return total; }
+        public double getAverage() { return headcount == 0 ? 0 : total / headcount; }
+    }
+
+    public static class Report {
+        private final List<Cell> cells;
+        private final List<Throughput> throughput;
+        private final List<Pay> payByDepartment;
+        private final List<Pay> payByRole;
+        private final long createdAt;
+        private final long elapsedMillis;
+
+        Report(List<Cell> cells, List<Throughput> throughput, List<Pay> payByDepartment, List<Pay> payByRole,
+               long createdAt, long elapsedMillis) {
+            this.cells = cells;
+            this.throughput = throughput;
+            this.payByDepartment = payByDepartment;
+            this.payByRole = payByRole;
+            this.createdAt = createdAt;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<Cell> getCells() { return cells; }                 // Largest first
+        public List<Throughput> getThroughput() { return throughput; } // Most completions first
+        public List<Pay> getPayByDepartment() { return payByDepartment; }
+        public List<Pay> getPayByRole() { return payByRole; }
+        public long getCreatedAt() { return createdAt; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    // What a pass reads, copied out of the live tasks and roster in one go on the EDT. The pass
+    // then runs on any thread while the app keeps changing, and sees the data as of this moment.
+    public static class Snapshot {
+        private final long version;
+        private final List<TaskStatus> statuses;
+        private final List<Group> groups;
+        private final long cutoff; // Completions from this minute on count as throughput
+
+        private final String[] departments; // Current employees
+        private final String[] roles;
+        private final double[] salaries;
+
+        private final Employee[] byRosterIndex;
+        private final String[] departmentByRosterIndex; // Everyone ever on the roster, for assignees
+
+        private final int[] status;     // By task: position in statuses, or -1
+        private final int[] assignee;   // Roster index, or -1
+        private final int[] group;      // Group id + 1, or 0
+        private final long[] since;     // Minute the task entered its status
+
+        private Snapshot(long version, TaskController taskController, EmployeeController employeeController,
+                         GroupController groupController) {
+            this.version = version;
+            this.statuses = new ArrayList<>(taskController.getStatuses());
+            this.groups = new ArrayList<>(groupController.getGroups());
+            this.cutoff = TaskController.minute(LocalDateTime.now().minusDays(THROUGHPUT_DAYS));
+
+            Collection<Employee> roster = employeeController.getEmployees().values();
+            departments = new String[roster.size()];
+            roles = new String[roster.size()];
+            salaries = new double[roster.size()];
+            int e = 0;
+            for (Employee employee : roster) {
+                departments[e] = employee.getDepartment();
+                roles[e] = employee.getRole();
+                salaries[e++] = employee.getSalary();
+            }
+
+            byRosterIndex = new Employee[employeeController.getRosterIndexCount()];
+            departmentByRosterIndex = new String[byRosterIndex.length];
+            for (int i = 0; i < byRosterIndex.length; i++) {
+                byRosterIndex[i] = employeeController.getByRosterIndex(i);
+                departmentByRosterIndex[i] = byRosterIndex[i].getDepartment();
+            }
+
+            List<Task> tasks = taskController.getTasks();
+            status = new int[tasks.size()];
+            assignee = new int[tasks.size()];
+            group = new int[tasks.size()];
+            since = new long[tasks.size()];
+            for (int t = 0; t < tasks.size(); t++) {
+                Task task = tasks.get(t);
+                status[t] = statuses.indexOf(task.getStatus());
+                assignee[t] = task.getAssignee() == null ? -1 : task.getAssignee().getRosterIndex();
+                group[t] = task.getGroup() == null ? 0 : task.getGroup().getId() + 1;
+                since[t] = taskController.getStatusSinceMinute(task);
+            }
+        }
+    }
+
+    // The cached report if nothing changed since it was built, else null. Call on the EDT.
+    public Report getCachedReport() {
+        if (cached != null && cachedVersion == version
+                && System.currentTimeMillis() - cached.getCreatedAt() < MAX_AGE_MILLIS) {
+            return cached;
+        }
+        return null;
+    }
+
+    // Copies what a report needs; call on the EDT, then hand the result to compute()
+    public Snapshot snapshot() {
+        return new Snapshot(version, taskController, employeeController, groupController);
+    }
+
+    // Keeps a report for getCachedReport(), unless something changed since its snapshot. Call on the EDT.
+    public void cache(Snapshot snapshot, Report report) {
+        if (snapshot.version != version) return;
+        cached = report;
+        cachedVersion = snapshot.version;
+    }
+
+    @Override
+    public void changed(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event.getKind() != ChangeEvent.Kind.ESCALATIONS_CHANGED) {
+                version++;
+                return;
+            }
+        }
+    }
+
+    // Builds a report from a snapshot on the common fork-join pool. Reads nothing live, so it can
+    // run on any thread, such as a SwingWorker's.
+    public static Report compute(Snapshot snapshot) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        // Pay first: it also names every department, so tasks can file them by number
+        int employees = snapshot.salaries.length;
+        PayTotals pay = pool.invoke(new PayPass(snapshot, 0, employees, grain(employees, pool)));
+        List<String> departments = new ArrayList<>(pay.byDepartment.keySet());
+        Map<String, Integer> departmentIndex = new HashMap<>();
+        for (int i = 0; i < departments.size(); i++) departmentIndex.put(departments.get(i), i);
+
+        int tasks = snapshot.status.length;
+        int grain = Math.max(1024, tasks / pool.getParallelism() + 1);
+        TaskPass pass = new TaskPass(snapshot, 0, tasks, grain, departmentIndex,
+                departments.size() + 1, snapshot.groups.size() + 1);
+        TaskTotals totals = pool.invoke(pass);
+
+        // Unpack the cells: ((status * departments) + department) * groups + group, 0 meaning none
+        List<Cell> cells = new ArrayList<>();
+        totals.cells.forEach((key, count) -> {
+            long g = key % pass.groupSlots;
+            long d = (key / pass.groupSlots) % pass.departmentSlots;
+            long s = key / pass.groupSlots / pass.departmentSlots;
+            cells.add(new Cell(snapshot.statuses.get((int) s), d == 0 ? null : departments.get((int) d - 1),
+                    g == 0 ? null : snapshot.groups.get((int) g - 1), (int) count));
+        });
+        cells.sort(Comparator.comparingInt(Cell::getTasks).reversed());
+
+        // Completed in the window in the high half, open in the low half
+        List<Throughput> throughput = new ArrayList<>();
+        for (int i = 0; i < totals.byAssignee.length; i++) {
+            long packed = totals.byAssignee[i];
+            if (packed != 0) throughput.add(new Throughput(snapshot.byRosterIndex[i], (int) (packed >>> 32), (int) packed));
+        }
+        throughput.sort(Comparator.comparingInt(Throughput::getCompleted).reversed()
+                .thenComparing(Comparator.comparingInt(Throughput::getOpen).reversed()));
+
+        return new Report(Collections.unmodifiableList(cells), Collections.unmodifiableList(throughput),
+                pay.list(pay.byDepartment), pay.list(pay.byRole), System.currentTimeMillis(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Helper Methods
+
+    // Items per range: about four per thread, so a slow thread can be helped out
+    private static int grain(int size, ForkJoinPool pool) {
+        return Math.max(1024, size / (pool.getParallelism() * 4) + 1);
+    }
+
+    private static class PayTotals {
+        private final Map<String, double[]> byDepartment = new HashMap<>(); // {headcount, total}
+        private final Map<String, double[]> byRole = new HashMap<>();
+
+        void add(String department, String role, double salary) {
+            add(byDepartment, department, 1, salary);
+            add(byRole, role, 1, salary);
+        }
+
+        PayTotals merge(PayTotals other) {
+            other.byDepartment.forEach((k, v) -> add(byDepartment, k, v[0], v[1]));
+            other.byRole.forEach((k, v) -> add(byRole, k, v[0], v[1]));
+            return this;
+        }
+
+        List<Pay> list(Map<String, double[]> totals) {
+            List<Pay> result = new ArrayList<>();
+            totals.forEach((k, v) -> result.add(new Pay(k, (int) v[0], v[1])));
+            result.sort(Comparator.comparingDouble(Pay::getTotal).reversed());
+            return Collections.unmodifiableList(result);
+        }
+
+        private static void add(Map<String, double[]> totals, String key, double headcount, double salary) {
+            double[] t = totals.computeIfAbsent(key == null ? "" : key, k -> new double[2]);
+            t[0] += headcount;
+            t[1] += salary;
+        }
+    }
+
+    private static class PayPass extends RecursiveTask<PayTotals> {
+        private final Snapshot snapshot;
+        private final int from, to, grain;
+
+        PayPass(Snapshot snapshot, int from, int to, int grain) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected PayTotals compute() {
+            if (to - from <= grain) {
+                PayTotals totals = new PayTotals();
+                for (int i = from; i < to; i++) totals.add(snapshot.departments[i], snapshot.roles[i], snapshot.salaries[i]);
+                return totals;
+            }
+
+            int mid = (from + to) >>> 1;
+            PayPass right = new PayPass(snapshot, mid, to, grain);
+            right.fork();
+            PayTotals left = new PayPass(snapshot, from, mid, grain).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    private static class TaskTotals {
+        private final Counts cells = new Counts();
+        private final long[] byAssignee; // By roster index: completed << 32 | open
+
+        TaskTotals(int rosterSize) {
+            byAssignee = new long[rosterSize];
+        }
+
+        TaskTotals merge(TaskTotals other) {
+            other.cells.forEach(cells::add);
+            for (int i = 0; i < byAssignee.length; i++) byAssignee[i] += other.byAssignee[i];
+            return this;
+        }
+    }
+
+    private static class TaskPass extends RecursiveTask<TaskTotals> {
+        private final Snapshot snapshot;
+        private final int from, to, grain;
+        private final Map<String, Integer> departmentIndex;
+        private final long departmentSlots, groupSlots;
+
+        TaskPass(Snapshot snapshot, int from, int to, int grain, Map<String, Integer> departmentIndex,
+                 long departmentSlots, long groupSlots) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.departmentIndex = departmentIndex;
+            this.departmentSlots = departmentSlots;
+            this.groupSlots = groupSlots;
+        }
+
+        @Override
+        protected TaskTotals compute() {
+            if (to - from <= grain) {
+                TaskTotals totals = new TaskTotals(snapshot.byRosterIndex.length);
+                for (int i = from; i < to; i++) add(totals, i);
+                return totals;
+            }
+
+            int mid = (from + to) >>> 1;
+            TaskPass right = new TaskPass(snapshot, mid, to, grain, departmentIndex, departmentSlots, groupSlots);
+            right.fork();
+            TaskTotals left = new TaskPass(snapshot, from, mid, grain, departmentIndex, departmentSlots, groupSlots).compute();
+            return left.merge(right.join());
+        }
+
+        private void add(TaskTotals totals, int task) {
+            int status = snapshot.status[task];
+            if (status < 0) return;
+
+            int assignee = snapshot.assignee[task];
+            String name = assignee < 0 ? null : snapshot.departmentByRosterIndex[assignee];
+            Integer department = assignee < 0 ? null : departmentIndex.get(name == null ? "" : name);
+            long d = department == null ? 0 : department + 1;
+            totals.cells.add((status * departmentSlots + d) * groupSlots + snapshot.group[task], 1);
+
+            if (assignee < 0) return;
+            if (status != COMPLETE) totals.byAssignee[assignee]++;
+            else if (snapshot.since[task] >= snapshot.cutoff) totals.byAssignee[assignee] += 1L << 32;
+        }
+    }
+
+    // Open-addressing map from non-negative long keys to long sums; one per range, so no locking
+    private static class Counts {
+        private long[] keys = new long[64];
+        private long[] values = new long[64];
+        private int size;
+
+        Counts() {
+            Arrays.fill(keys, -1);
+        }
+
+        void add(long key, long amount) {
+            int mask = keys.length - 1;
+            int at = (int) (mix(key) & mask);
+            while (keys[at] != -1 && keys[at] != key) at = (at + 1) & mask;
+
+            if (keys[at] == -1) {
+                keys[at] = key;
+                if (++size * 2 > keys.length) {
+                    values[at] = amount;
+                    grow();
+                    return;
+                }
+            }
+            values[at] += amount;
+        }
+
+        void forEach(Entry action) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != -1) action.accept(keys[i], values[i]);
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[keys.length];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) add(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+
+        interface Entry {
+            void accept(long key, long value);
+        }
+    }
+
+}
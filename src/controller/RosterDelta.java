@@ -0,0 +1,27 @@
+package controller;
+
+import model.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows that differ between two versions of the roster CSV
+public class RosterDelta {
+
+    private final List<Employee> added = new ArrayList<>();
+    private final List<Employee> changed = new ArrayList<>();
+    private final List<Employee> removed = new ArrayList<>();
+
+    public List<Employee> getAdded() { return added; }
+    public List<Employee> getChanged() { return changed; }
+    public List<Employee> getRemoved() { return removed; }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return added.size() + " added, " + changed.size() + " changed, " + removed.size() + " removed";
+    }
+}
@@ -0,0 +1,268 @@
+package controller;
+
+import model.Employee;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Parses the roster CSV straight out of a memory-mapped file. The body is split into
+// line-aligned chunks that are parsed in parallel on the common fork-join pool, and the
+// numeric columns (id, salary) are read from the raw bytes without building a String.
+public class RosterLoader {
+
+    private static final int COLUMNS = 14;
+    private static final int CHUNK_BYTES = 1 << 20; // Leaf size for the fork-join split
+
+    public static class Result {
+        private final List<Employee> employees;
+        private final int rowsParsed;
+        private final int rowsSkipped;
+        private final long elapsedNanos;
+
+        Result(List<Employee> employees, int rowsParsed, int rowsSkipped, long elapsedNanos) {
+            this.employees = employees;
+            this.rowsParsed = rowsParsed;
+            this.rowsSkipped = rowsSkipped;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Valid rows in file order
+        public List<Employee> getEmployees() { return employees; }
+        public int getRowsParsed() { return rowsParsed; }
+        public int getRowsSkipped() { return rowsSkipped; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        @Override
+        public String toString() {
+            return "Roster load: " + rowsParsed + " rows parsed, " + rowsSkipped + " skipped, "
+                    + getElapsedMillis() + " ms";
+        }
+    }
+
+    public Result load(Path path) throws IOException {
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Roster file too large to map: " + size + " bytes");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size;
+
+            // Skip header
+            int bodyStart = nextLineStart(buffer, 0, end);
+
+            Chunk chunk = ForkJoinPool.commonPool().invoke(new ParseTask(buffer, bodyStart, end));
+            return new Result(chunk.employees, chunk.parsed, chunk.skipped, System.nanoTime() - start);
+        }
+    }
+
+    // Returns the offset just past the next line break at or after from, or end if there is none
+    private static int nextLineStart(MappedByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                if (b == '\r' && i + 1 < end && buffer.get(i + 1) == '\n') return i + 2;
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    // Rows parsed from one contiguous range of the file
+    private static class Chunk {
+        private List<Employee> employees = new ArrayList<>();
+        private int parsed;
+        private int skipped;
+
+        private Chunk append(Chunk next) {
+            employees.addAll(next.employees);
+            parsed += next.parsed;
+            skipped += next.skipped;
+            return this;
+        }
+    }
+
+    private static class ParseTask extends RecursiveTask<Chunk> {
+        private final MappedByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        ParseTask(MappedByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (end - start <= CHUNK_BYTES) {
+                return parseRange();
+            }
+
+            // Split on a line boundary so no row straddles two chunks
+            int mid = nextLineStart(buffer, start + (end - start) / 2, end);
+            if (mid >= end) {
+                return parseRange();
+            }
+
+            ParseTask left = new ParseTask(buffer, start, mid);
+            left.fork();
+            Chunk right = new ParseTask(buffer, mid, end).compute();
+            return left.join().append(right);
+        }
+
+        private Chunk parseRange() {
+            Chunk chunk = new Chunk();
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+
+            int[] bounds = new int[COLUMNS * 2];
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i < bytes.length && bytes[i] != '\n' && bytes[i] != '\r') continue;
+
+                parseLine(bytes, lineStart, i, bounds, chunk);
+                lineStart = i + 1;
+            }
+            return chunk;
+        }
+
+        private void parseLine(byte[] bytes, int from, int to, int[] bounds, Chunk chunk) {
+            // Handle completely empty lines
+            if (isBlank(bytes, from, to)) return;
+
+            chunk.parsed++;
+
+            // Record the trimmed [start, end) of each column; missing columns stay empty
+            int column = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to && column < COLUMNS; i++) {
+                if (i < to && bytes[i] != ',') continue;
+
+                int s = fieldStart;
+                int e = i;
+                while (s < e && (bytes[s] & 0xFF) <= ' ') s++;
+                while (e > s && (bytes[e - 1] & 0xFF) <= ' ') e--;
+                bounds[column * 2] = s;
+                bounds[column * 2 + 1] = e;
+
+                column++;
+                fieldStart = i + 1;
+            }
+            for (; column < COLUMNS; column++) {
+                bounds[column * 2] = 0;
+                bounds[column * 2 + 1] = 0;
+            }
+
+            // Require username, password, first/last name, department, role
+            if (isEmpty(bounds, 0) || isEmpty(bounds, 1) || isEmpty(bounds, 3) || isEmpty(bounds, 4)
+                    || isEmpty(bounds, 12) || isEmpty(bounds, 13)) {
+                chunk.skipped++;
+                return;
+            }
+
+            chunk.employees.add(new Employee(
+                    text(bytes, bounds, 0),
+                    text(bytes, bounds, 1),
+                    parseInt(bytes, bounds[4], bounds[5]),
+                    text(bytes, bounds, 3),
+                    text(bytes, bounds, 4),
+                    text(bytes, bounds, 5),
+                    text(bytes, bounds, 6),
+                    text(bytes, bounds, 7),
+                    text(bytes, bounds, 8),
+                    parseDouble(bytes, bounds[18], bounds[19]),
+                    text(bytes, bounds, 10),
+                    text(bytes, bounds, 11),
+                    text(bytes, bounds, 12),
+                    text(bytes, bounds, 13)
+            ));
+        }
+    }
+
+    // Helper Methods
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((bytes[i] & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(int[] bounds, int column) {
+        return bounds[column * 2] == bounds[column * 2 + 1];
+    }
+
+    private static String text(byte[] bytes, int[] bounds, int column) {
+        int s = bounds[column * 2];
+        return new String(bytes, s, bounds[column * 2 + 1] - s, StandardCharsets.UTF_8);
+    }
+
+    // Same result as Integer.parseInt on the trimmed field, or 0 if it is not a valid int
+    static int parseInt(byte[] bytes, int from, int to) {
+        if (from >= to) return 0;
+
+        boolean negative = bytes[from] == '-';
+        int i = (bytes[from] == '-' || bytes[from] == '+') ? from + 1 : from;
+        if (i >= to || to - i > 10) return 0;
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) return 0;
+            value = value * 10 + digit;
+        }
+        if (negative) value = -value;
+
+        return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? 0 : (int) value;
+    }
+
+    // Same result as Double.parseDouble on the trimmed field, or 0.0 if it is not a valid double.
+    // Plain decimals are handled from the bytes; anything else (exponents, NaN, ...) falls back.
+    static double parseDouble(byte[] bytes, int from, int to) {
+        if (from >= to) return 0.0;
+
+        boolean negative = bytes[from] == '-';
+        int i = (bytes[from] == '-' || bytes[from] == '+') ? from + 1 : from;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || digits >= 15) return parseDoubleSlow(bytes, from, to);
+
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (seenPoint) fractionDigits++;
+        }
+        if (digits == 0) return parseDoubleSlow(bytes, from, to);
+
+        // Exact while the mantissa fits in 53 bits and the power of ten is exactly representable
+        double value = mantissa / Math.pow(10, fractionDigits);
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(byte[] bytes, int from, int to) {
+        try { return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.UTF_8)); }
+        catch (Exception e) { return 0.0; }
+    }
+
+}
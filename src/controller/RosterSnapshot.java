@@ -0,0 +1,348 @@
+package controller;
+
+import model.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// Binary copy of a loaded roster, tied to the CSV it was built from by size, mtime and hash.
+//
+// Layout (big-endian):
+//   magic, version, csv size, csv mtime, csv hash
+//   string dictionary: count, then (length, UTF-8 bytes) per string
+//   employees in username order: 12 string refs, id, salary
+//   manager and laborer indexes: count, then employee positions in username order
+//   CRC32C of everything above
+public class RosterSnapshot {
+
+    private static final int MAGIC = 0x4D545253; // "MTRS"
+    private static final int VERSION = 1;
+
+    private final Path file;
+
+    public RosterSnapshot(Path file) {
+        this.file = file;
+    }
+
+    // Identifies one version of the CSV
+    public static class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final long hash;
+
+        private Fingerprint(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        public static Fingerprint of(Path csv) throws IOException {
+            try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long modified = Files.getLastModifiedTime(csv).toMillis();
+
+                CRC32C crc = new CRC32C();
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                return new Fingerprint(size, modified, crc.getValue());
+            }
+        }
+
+        public boolean matches(Fingerprint other) {
+            return other != null && matches(other.size, other.modified, other.hash);
+        }
+
+        private boolean matches(long size, long modified, long hash) {
+            return this.size == size && this.modified == modified && this.hash == hash;
+        }
+    }
+
+    public static class Roster {
+        private final TreeMap<String, Employee> employees;
+        private final TreeMap<String, Employee> managers;
+        private final TreeMap<String, Employee> laborers;
+
+        private Roster(TreeMap<String, Employee> employees, TreeMap<String, Employee> managers, TreeMap<String, Employee> laborers) {
+            this.employees = employees;
+            this.managers = managers;
+            this.laborers = laborers;
+        }
+
+        public TreeMap<String, Employee> getEmployees() { return employees; }
+        public TreeMap<String, Employee> getManagers() { return managers; }
+        public TreeMap<String, Employee> getLaborers() { return laborers; }
+    }
+
+    // Returns null if there is no snapshot or it was built from a different CSV.
+    // Throws if the snapshot exists but cannot be decoded.
+    public Roster read(Fingerprint csv) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 56 || size > Integer.MAX_VALUE) throw new IOException("Corrupt roster snapshot: bad size");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Corrupt roster snapshot: unknown format");
+            }
+            if (!csv.matches(buffer.getLong(8), buffer.getLong(16), buffer.getLong(24))) {
+                return null;
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, (int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new IOException("Corrupt roster snapshot: checksum mismatch");
+            }
+
+            buffer.position(32);
+            return decode(buffer);
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Corrupt roster snapshot: " + e, e);
+        }
+    }
+
+    private Roster decode(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Employee[] sorted = new Employee[buffer.getInt()];
+        for (int i = 0; i < sorted.length; i++) {
+            String username = strings[buffer.getInt()];
+            String password = strings[buffer.getInt()];
+            String firstName = strings[buffer.getInt()];
+            String lastName = strings[buffer.getInt()];
+            String street = strings[buffer.getInt()];
+            String city = strings[buffer.getInt()];
+            String state = strings[buffer.getInt()];
+            String country = strings[buffer.getInt()];
+            String hireDate = strings[buffer.getInt()];
+            String birthDate = strings[buffer.getInt()];
+            String department = strings[buffer.getInt()];
+            String role = strings[buffer.getInt()];
+            int id = buffer.getInt();
+            double salary = buffer.getDouble();
+
+            sorted[i] = new Employee(username, password, id, firstName, lastName,
+                    street, city, state, country, salary, hireDate, birthDate, department, role);
+        }
+
+        TreeMap<String, Employee> employees = new TreeMap<>(new Presorted(Arrays.asList(sorted)));
+        TreeMap<String, Employee> managers = new TreeMap<>(new Presorted(readIndex(buffer, sorted)));
+        TreeMap<String, Employee> laborers = new TreeMap<>(new Presorted(readIndex(buffer, sorted)));
+        return new Roster(employees, managers, laborers);
+    }
+
+    private List<Employee> readIndex(ByteBuffer buffer, Employee[] sorted) {
+        int count = buffer.getInt();
+        List<Employee> subset = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            subset.add(sorted[buffer.getInt()]);
+        }
+        return subset;
+    }
+
+    // employees must be in username order; managers and laborers are subsets of it
+    public void write(Fingerprint csv, List<Employee> employees,
+                      Collection<Employee> managers, Collection<Employee> laborers) throws IOException {
+        // Dictionary-encode every string field
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Map<Employee, Integer> positions = new HashMap<>();
+        int[] refs = new int[employees.size() * 12];
+        int r = 0;
+        for (Employee e : employees) {
+            positions.put(e, positions.size());
+            for (String s : fields(e)) {
+                Integer id = ids.get(s);
+                if (id == null) {
+                    id = strings.size();
+                    ids.put(s, id);
+                    strings.add(s);
+                }
+                refs[r++] = id;
+            }
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(csv.size);
+            out.writeLong(csv.modified);
+            out.writeLong(csv.hash);
+
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(employees.size());
+            r = 0;
+            for (Employee e : employees) {
+                for (int i = 0; i < 12; i++) {
+                    out.writeInt(refs[r++]);
+                }
+                out.writeInt(e.getId());
+                out.writeDouble(e.getSalary());
+            }
+
+            writeIndex(out, managers, positions);
+            writeIndex(out, laborers, positions);
+            out.flush();
+
+            // Trailer goes around the checksum stream so it covers only the body
+            new DataOutputStream(raw).writeLong(crc.getValue());
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeIndex(DataOutputStream out, Collection<Employee> subset, Map<Employee, Integer> positions) throws IOException {
+        List<Integer> indexed = new ArrayList<>(subset.size());
+        for (Employee e : subset) {
+            Integer position = positions.get(e);
+            if (position != null) indexed.add(position);
+        }
+        indexed.sort(Comparator.naturalOrder());
+
+        out.writeInt(indexed.size());
+        for (int position : indexed) {
+            out.writeInt(position);
+        }
+    }
+
+    // Same order as the string refs in decode()
+    private String[] fields(Employee e) {
+        return new String[]{
+                e.getUsername(), e.getPassword(), e.getFirstName(), e.getLastName(),
+                e.getStreetAddress(), e.getCity(), e.getState(), e.getCountry(),
+                e.getHireDate(), e.getBirthDate(), e.getDepartment(), e.getRole()
+        };
+    }
+
+    // Read-only sorted map over employees already in username order, which lets TreeMap copy it in
+    // linear time. Lookups and range views binary-search the list; views share it via subList.
+    private static class Presorted extends AbstractMap<String, Employee> implements SortedMap<String, Employee> {
+        private final List<Employee> sorted;
+
+        Presorted(List<Employee> sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public Set<Entry<String, Employee>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Employee>> iterator() {
+                    Iterator<Employee> it = sorted.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() { return it.hasNext(); }
+
+                        @Override
+                        public Entry<String, Employee> next() {
+                            Employee e = it.next();
+                            return new SimpleImmutableEntry<>(e.getUsername(), e);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() { return sorted.size(); }
+            };
+        }
+
+        @Override
+        public int size() { return sorted.size(); }
+
+        @Override
+        public Employee get(Object key) {
+            if (!(key instanceof String)) return null;
+            int at = lowerBound((String) key);
+            return at < sorted.size() && sorted.get(at).getUsername().equals(key) ? sorted.get(at) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) { return get(key) != null; }
+
+        @Override
+        public Comparator<? super String> comparator() { return null; }
+
+        @Override
+        public String firstKey() {
+            if (sorted.isEmpty()) throw new NoSuchElementException();
+            return sorted.get(0).getUsername();
+        }
+
+        @Override
+        public String lastKey() {
+            if (sorted.isEmpty()) throw new NoSuchElementException();
+            return sorted.get(sorted.size() - 1).getUsername();
+        }
+
+        @Override
+        public SortedMap<String, Employee> subMap(String fromKey, String toKey) {
+            if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+            return new Presorted(sorted.subList(lowerBound(fromKey), lowerBound(toKey)));
+        }
+
+        @Override
+        public SortedMap<String, Employee> headMap(String toKey) {
+            return new Presorted(sorted.subList(0, lowerBound(toKey)));
+        }
+
+        @Override
+        public SortedMap<String, Employee> tailMap(String fromKey) {
+            return new Presorted(sorted.subList(lowerBound(fromKey), sorted.size()));
+        }
+
+        // First position whose username is not below key
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = sorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted.get(mid).getUsername().compareTo(key) < 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Watches one file and runs a callback on a daemon thread once writes to it have settled
+public class RosterWatcher {
+
+    private static final long SETTLE_MILLIS = 300;
+
+    private final Path file;
+    private final Runnable onChange;
+    private WatchService watchService;
+
+    public RosterWatcher(Path file, Runnable onChange) {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+    }
+
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::run, "roster-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        try {
+            if (watchService != null) watchService.close();
+        }
+        catch (IOException e) {
+            System.out.println("Failed to stop roster watcher: " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!drain(watchService.take())) continue;
+
+                // Editors and copy tools write in bursts; wait for a quiet period before reloading
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+
+                try {
+                    onChange.run();
+                }
+                catch (Exception e) {
+                    System.out.println("Roster reload failed: " + e.getMessage());
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    // Returns true if any event in the key concerns the watched file
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+}
@@ -0,0 +1,139 @@
+package controller;
+
+import model.Employee;
+import model.Group;
+import model.GroupRule;
+import model.IdSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// Per-attribute indexes behind dynamic groups. For every value of every rule attribute it keeps
+// the roster indexes of current employees with that value, so a new rule's members are the
+// intersection of a few sets rather than a roster scan. Each rule is also filed under one of its
+// values, the one the fewest employees share, so an employee who joins or changes is only tested
+// against the rules filed under their own values. Rules on hire date alone have no value to be
+// filed under and are tested for everyone.
+class RuleIndex {
+
+    private static final GroupRule.Attribute[] ATTRIBUTES = GroupRule.Attribute.values();
+
+    private static class Value {
+        final IdSet employees = new IdSet();
+        final List<Group> rules = new ArrayList<>(); // Rules filed here
+    }
+
+    private final List<Map<String, Value>> values = new ArrayList<>(); // By attribute ordinal
+    private final IdSet everyone = new IdSet();
+    private final List<Group> unfiled = new ArrayList<>();
+    private final Map<Group, Value> filedUnder = new HashMap<>();
+
+    private Value[] filed = new Value[0]; // Values each roster index is indexed under, ATTRIBUTES.length apiece
+
+    RuleIndex() {
+        for (int a = 0; a < ATTRIBUTES.length; a++) values.add(new HashMap<>());
+    }
+
+    // Indexes the current roster; later changes come through add(), update() and remove()
+    void build(Collection<Employee> roster) {
+        for (Employee e : roster) add(e);
+    }
+
+    void add(Employee e) {
+        int index = e.getRosterIndex();
+        int base = index * ATTRIBUTES.length;
+        if (base + ATTRIBUTES.length > filed.length) {
+            filed = Arrays.copyOf(filed, Math.max(base + ATTRIBUTES.length, filed.length * 2));
+        }
+
+        for (int a = 0; a < ATTRIBUTES.length; a++) {
+            Value value = values.get(a).computeIfAbsent(ATTRIBUTES[a].valueOf(e), k -> new Value());
+            value.employees.add(index);
+            filed[base + a] = value;
+        }
+        everyone.add(index);
+    }
+
+    // Re-files an employee whose fields changed in place
+    void update(Employee e) {
+        remove(e);
+        add(e);
+    }
+
+    void remove(Employee e) {
+        int index = e.getRosterIndex();
+        if (!everyone.remove(index)) return;
+
+        int base = index * ATTRIBUTES.length;
+        for (int a = 0; a < ATTRIBUTES.length; a++) {
+            filed[base + a].employees.remove(index);
+            filed[base + a] = null;
+        }
+    }
+
+    void addRule(Group g) {
+        Value smallest = null;
+        for (Map.Entry<GroupRule.Attribute, String> condition : g.getRule().getValues().entrySet()) {
+            Value value = values.get(condition.getKey().ordinal()).computeIfAbsent(condition.getValue(), k -> new Value());
+            if (smallest == null || value.employees.size() < smallest.employees.size()) smallest = value;
+        }
+
+        if (smallest == null) {
+            unfiled.add(g);
+        }
+        else {
+            smallest.rules.add(g);
+            filedUnder.put(g, smallest);
+        }
+    }
+
+    void removeRule(Group g) {
+        Value value = filedUnder.remove(g);
+        if (value != null) value.rules.remove(g);
+        else unfiled.remove(g);
+    }
+
+    // Roster indexes of the current employees the rule matches
+    IdSet match(GroupRule rule, IntFunction<Employee> byRosterIndex) {
+        List<IdSet> sets = new ArrayList<>();
+        for (Map.Entry<GroupRule.Attribute, String> condition : rule.getValues().entrySet()) {
+            Value value = values.get(condition.getKey().ordinal()).get(condition.getValue());
+            if (value == null) return new IdSet();
+            sets.add(value.employees);
+        }
+
+        // Smallest first, so each intersection is no bigger than the last
+        sets.sort(Comparator.comparingInt(IdSet::size));
+        IdSet matched = sets.isEmpty() ? everyone.copy() : sets.get(0).copy();
+        for (int i = 1; i < sets.size() && !matched.isEmpty(); i++) {
+            matched = matched.and(sets.get(i));
+        }
+
+        if (rule.getHiredFrom() == null && rule.getHiredTo() == null) return matched;
+        IdSet hired = new IdSet();
+        matched.forEach(index -> {
+            if (rule.matchesHireDate(byRosterIndex.apply(index))) hired.add(index);
+        });
+        return hired;
+    }
+
+    // Groups whose rules could match the employee as now indexed; the caller tests each rule
+    List<Group> candidates(Employee e) {
+        List<Group> result = new ArrayList<>(unfiled);
+        int index = e.getRosterIndex();
+        if (!everyone.contains(index)) return result;
+
+        int base = index * ATTRIBUTES.length;
+        for (int a = 0; a < ATTRIBUTES.length; a++) {
+            result.addAll(filed[base + a].rules);
+        }
+        return result;
+    }
+
+}
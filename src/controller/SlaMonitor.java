@@ -0,0 +1,66 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+// How long each task has been in its current status, against a per-status limit. Every task in a
+// limited status has one timer on a TimerWheel for the minute its limit runs out; a status change
+// replaces that timer in O(1). Nothing ever walks the task list to find late tasks: as time
+// advances, only the timers that come due are looked at, and those tasks become overdue.
+class SlaMonitor {
+
+    private final TimerWheel wheel;
+    private int[] limits = new int[0];          // Minutes allowed per status position; 0 for no limit
+    private long[] since = new long[0];         // Minute each task entered its status, by task id
+    private final BitSet overdue = new BitSet(); // By task id
+
+    SlaMonitor(long now) {
+        wheel = new TimerWheel(now);
+    }
+
+    int getLimit(int status) {
+        return status < limits.length ? limits[status] : 0;
+    }
+
+    // Only affects tasks tracked from now on; re-track the status's tasks to apply it to them
+    void setLimit(int status, int minutes) {
+        if (status >= limits.length) limits = Arrays.copyOf(limits, status + 1);
+        limits[status] = minutes;
+    }
+
+    // Starts the task's clock in the status from the given minute, replacing any earlier timer.
+    // A task past its limit already becomes overdue on the next advance. Returns whether the task
+    // was overdue before.
+    boolean track(int task, int status, long from) {
+        if (task >= since.length) since = Arrays.copyOf(since, Math.max(task + 1, since.length * 2));
+        since[task] = from;
+
+        boolean wasOverdue = overdue.get(task);
+        overdue.clear(task);
+        int limit = getLimit(status);
+        if (limit > 0) wheel.schedule(from + limit, task);
+        else wheel.cancel(task);
+        return wasOverdue;
+    }
+
+    // Moves time forward, marking and passing on every task whose limit ran out
+    void advance(long now, IntConsumer expired) {
+        wheel.advance(now, task -> {
+            overdue.set(task);
+            expired.accept(task);
+        });
+    }
+
+    boolean isOverdue(int task) {
+        return overdue.get(task);
+    }
+
+    // Minute the task entered its current status
+    long getSince(int task) {
+        return task < since.length ? since[task] : 0;
+    }
+
+    int getOverdueCount() { return overdue.cardinality(); }
+
+}
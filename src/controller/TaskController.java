@@ -1,33 +1,1016 @@
 package controller;
 
 import model.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class TaskController implements TaskListener, GroupListener {
 
-public class TaskController {
+    public static final int IMPORT_CHUNK = 16_384; // Rows per importTasks() call in a large import
+    private static final String JOURNAL_PATH = "src/data/tasks.journal";
+    private static final String SNAPSHOT_PATH = "src/data/tasks.snapshot";
+    private static final String HISTORY_PATH = "src/data/tasks.history";
+    private static final int COMPLETE = 2; // Position of the built-in "Complete" status
+    private static final int LOOKAHEAD_MINUTES = 60; // Recurring tasks appear this long before they are due
+    private static final int MAX_CATCH_UP = 48;      // Missed occurrences generated per template after downtime
+    private static final int COMPACT_AFTER_RECORDS = 100_000; // Minimum journal records between snapshots
 
-    private List<Task> tasks = new ArrayList<>();
+    private List<Task> tasks = new ArrayList<>(); // Indexed by task id
     private List<TaskStatus> statuses = new ArrayList<>();
 
-    public TaskController() {
+    // Kept in step with Task.assignEmployee / assignGroup through the TaskListener hooks
+    private Map<Employee, Set<Task>> tasksByAssignee = new HashMap<>();
+    private Map<Group, Set<Task>> tasksByGroup = new HashMap<>();
+
+    // Tasks bucketed by status, custom ones included; a task moves bucket on every status change
+    private Map<TaskStatus, Set<Task>> tasksByStatus = new HashMap<>();
+
+    private TaskSearchIndex searchIndex = new TaskSearchIndex();
+
+    // Prerequisites between tasks, with a running count of each task's incomplete ones
+    private TaskGraph graph = new TaskGraph();
+
+    // Open, ready tasks queued per employee and per group, for getNextTask()
+    private TaskScheduler scheduler = new TaskScheduler(t -> isOpen(t) && graph.isReady(t.getId()));
+
+    // Open tasks and priority-weighted load per employee, for auto-assignment
+    private Workload workload = new Workload();
+
+    // Recurring tasks, by template id; each active one has a single timer set for its next occurrence
+    private List<TaskTemplate> templates = new ArrayList<>();
+    private TimerWheel wheel;
+
+    // Time limits per status, with a timer per task in a limited status. Overdue tasks are
+    // escalated to an admin and sit in that admin's inbox until they change status.
+    private SlaMonitor sla = new SlaMonitor(minute(LocalDateTime.now()));
+    private boolean deadlinesStarted; // Tasks are tracked once recovery has finished
+    private Map<Employee, Set<Task>> escalations = new HashMap<>();
+    private Map<Task, Employee> escalatedTo = new HashMap<>();
+    private int escalationTurn; // Admins take turns at receiving escalations
+
+    private TaskStore.Batch bulk; // Collects records during bulk changes instead of one frame per task
+
+    private TaskStore store = new TaskStore(Path.of(JOURNAL_PATH), Path.of(SNAPSHOT_PATH));
+    private TaskHistory history; // Opened after recovery, so replayed changes are not recorded twice
+    private EmployeeController employeeController;
+    private GroupController groupController;
+    private final ChangeBus changeBus;
+
+    public TaskController(ChangeBus changeBus) {
+        this.changeBus = changeBus;
         statuses.add(new TaskStatus("Open"));
         statuses.add(new TaskStatus("In-Progress"));
         statuses.add(new TaskStatus("Complete"));
     }
 
+    // Rebuilds tasks, custom statuses and groups from disk, then starts journaling changes.
+    // Must run once, after the roster and built-in groups exist and before any task is created.
+    public void recover(EmployeeController employeeController, GroupController groupController) {
+        this.employeeController = employeeController;
+        this.groupController = groupController;
+
+        long start = System.nanoTime();
+        try {
+            long records = store.recover(new Recovery(employeeController, groupController));
+            System.out.println("Recovered " + tasks.size() + " tasks from " + records + " journal records in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        catch (Exception e) {
+            System.out.println("Failed to recover tasks: " + e.getMessage());
+        }
+
+        openHistory();
+        groupController.setListener(this);
+        startTemplates();
+        startDeadlines();
+    }
+
+    // Throws if journalled changes could not be saved
+    public void close() throws IOException {
+        try {
+            store.close();
+        }
+        finally {
+            if (history != null) history.close();
+        }
+    }
+
     public Task createTask(String title, String desc, TaskStatus status) {
-        Task t = new Task(title, desc, status);
+        return createTask(title, desc, status, TaskPriority.NORMAL, null);
+    }
+
+    public Task createTask(String title, String desc, TaskStatus status, TaskPriority priority, LocalDateTime due) {
+        Task t = new Task(tasks.size(), title, desc, status);
+        t.setSchedule(priority, due);
+        t.setListener(this);
         tasks.add(t);
+        move(tasksByStatus, t, null, status);
+        searchIndex.add(t.getId(), title, desc);
+
+        TaskStore.Batch batch = new TaskStore.Batch().createTask(t.getId(), title, desc, statuses.indexOf(status));
+        if (priority != TaskPriority.NORMAL || due != null) batch.setSchedule(t.getId(), priority.ordinal(), dueSeconds(due));
+        journal(batch);
+        remember(TaskHistory.CREATED, t, statuses.indexOf(status));
+        trackDeadline(t, minute(LocalDateTime.now()));
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CREATED, t));
         return t;
     }
 
+    // An importer that resolves names against the roster, groups and statuses as they are now.
+    // Its read() can then run on any thread; hand the result to importTasks() on the EDT.
+    public TaskImporter newImporter() {
+        return new TaskImporter(employeeController.getEmployees(), groupController.getGroups(), statuses);
+    }
+
+    // Appends imported rows as tasks: one journal frame, one pass over the indexes and a single
+    // change event per call, instead of the per-task work createTask() does. A large import is
+    // best handed over IMPORT_CHUNK rows per EDT event, so the window keeps painting in between.
+    //
+    // The roster may have been reloaded since the importer resolved the assignees, so each one is
+    // checked again: a task whose assignee has left is added unassigned (keeping its group, if any).
+    // Returns how many rows lost their assignee that way.
+    public int importTasks(List<TaskImporter.Row> rows) {
+        int unassigned = 0;
+        TaskStore.Batch batch = new TaskStore.Batch();
+
+        for (TaskImporter.Row row : rows) {
+            Employee assignee = row.getAssignee();
+            if (assignee != null && employeeController.getEmployees().get(assignee.getUsername()) != assignee) {
+                assignee = null;
+                unassigned++;
+            }
+            appendTask(batch, row.getTitle(), row.getDescription(), row.getStatus(), row.getPriority(),
+                    row.getDueDate(), assignee, row.getGroup());
+        }
+
+        journal(batch);
+        if (!rows.isEmpty()) changeBus.publish(ChangeEvent.tasksImported());
+        return unassigned;
+    }
+
+    // Recurring tasks
+
+    // Starts generating a task for every occurrence of the rule. Occurrences due within the
+    // look-ahead window are created straight away; returns the new template.
+    public TaskTemplate addTemplate(String title, String description, TaskPriority priority,
+                                    Employee assignee, Group group, RecurrenceRule rule) {
+        if ((assignee == null) == (group == null)) {
+            throw new IllegalArgumentException("A recurring task needs exactly one of an employee or a group");
+        }
+
+        TaskTemplate template = new TaskTemplate(templates.size(), title, description, priority, assignee, group, rule);
+        templates.add(template);
+        journal(new TaskStore.Batch().addTemplate(template.getId(), title, description, priority.ordinal(),
+                assignee == null ? null : assignee.getUsername(), group == null ? -1 : group.getId(),
+                dueSeconds(rule.getStart()), rule.getEvery(), rule.getUnit().name()));
+
+        wheel.schedule(generateAt(template), template.getId());
+        tick(LocalDateTime.now());
+        return template;
+    }
+
+    // No further occurrences are generated; tasks already created stay
+    public void stopTemplate(TaskTemplate template) {
+        if (!template.isActive()) return;
+
+        template.stop();
+        journal(new TaskStore.Batch().stopTemplate(template.getId()));
+    }
+
+    public List<TaskTemplate> getTemplates() { return Collections.unmodifiableList(templates); }
+
+    // Creates the tasks for every occurrence that has come within the look-ahead window. Called by
+    // a timer on the EDT; only templates whose timer fired are looked at. Returns tasks created.
+    public int tick(LocalDateTime now) {
+        checkDeadlines(now);
+        if (wheel == null) return 0;
+
+        List<TaskTemplate> due = new ArrayList<>();
+        wheel.advance(minute(now), id -> due.add(templates.get(id)));
+        if (due.isEmpty()) return 0;
+
+        TaskStore.Batch batch = new TaskStore.Batch();
+        LocalDateTime horizon = now.plusMinutes(LOOKAHEAD_MINUTES);
+        int created = 0;
+
+        for (TaskTemplate template : due) {
+            if (!template.isActive()) continue; // Stopped since its timer was set
+
+            // Occurrences not yet generated, up to the horizon; after a long gap keep only the latest
+            RecurrenceRule rule = template.getRule();
+            LocalDateTime first = nextOccurrence(template);
+            long missed = first.isAfter(horizon) ? 0 : ChronoUnit.MINUTES.between(first, horizon) / rule.getStepMinutes() + 1;
+            if (missed > MAX_CATCH_UP) {
+                first = first.plusMinutes((missed - MAX_CATCH_UP) * rule.getStepMinutes());
+            }
+
+            for (LocalDateTime at = first; !at.isAfter(horizon); at = rule.nextAfter(at)) {
+                appendTask(batch, template.getTitle(), template.getDescription(), statuses.get(0), template.getPriority(),
+                        at, template.getAssignee(), template.getGroup());
+                template.setLastGenerated(at);
+                created++;
+            }
+            if (template.getLastGenerated() != null) {
+                batch.templateGenerated(template.getId(), dueSeconds(template.getLastGenerated()));
+            }
+
+            wheel.schedule(generateAt(template), template.getId());
+        }
+
+        journal(batch);
+        if (created > 0) changeBus.publish(ChangeEvent.tasksImported());
+        return created;
+    }
+
+    // Time limits
+
+    // How long a task may stay in the status before it is escalated; 0 removes the limit. Tasks
+    // already in the status are held to the new limit from when they entered it.
+    public void setDeadline(TaskStatus status, int minutes) {
+        if (!statuses.contains(status)) throw new IllegalArgumentException("Unknown status " + status);
+        if (minutes < 0) throw new IllegalArgumentException("A time limit cannot be negative");
+
+        int index = statuses.indexOf(status);
+        sla.setLimit(index, minutes);
+        journal(new TaskStore.Batch().setDeadline(index, minutes));
+
+        if (!deadlinesStarted) return;
+        boolean resolved = false;
+        for (Task t : tasksByStatus.getOrDefault(status, Collections.emptySet())) {
+            resolved |= trackDeadline(t, sla.getSince(t.getId()));
+        }
+        if (resolved) changeBus.publish(ChangeEvent.escalationsChanged());
+        checkDeadlines(LocalDateTime.now());
+    }
+
+    // Minutes allowed in the status, 0 for no limit
+    public int getDeadline(TaskStatus status) {
+        return sla.getLimit(statuses.indexOf(status));
+    }
+
+    // Past its status's time limit and not moved on since
+    public boolean isOverdue(Task t) {
+        return sla.isOverdue(t.getId());
+    }
+
+    // When the task entered its current status, to the minute
+    public LocalDateTime getStatusSince(Task t) {
+        return LocalDateTime.ofEpochSecond(getStatusSinceMinute(t) * 60, 0, ZoneOffset.UTC);
+    }
+
+    // The same, as a minute number from minute()
+    long getStatusSinceMinute(Task t) {
+        return sla.getSince(t.getId());
+    }
+
+    // The admin an overdue task was escalated to, or null
+    public Employee getEscalatedTo(Task t) {
+        return escalatedTo.get(t);
+    }
+
+    // Overdue tasks escalated to the admin, oldest task first
+    public List<Task> getEscalations(Employee admin) {
+        List<Task> result = new ArrayList<>(escalations.getOrDefault(admin, Collections.emptySet()));
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    public int getOverdueCount() { return escalatedTo.size(); }
+
     public List<Task> getTasks() { return tasks; }
     public List<TaskStatus> getStatuses() { return statuses; }
 
+    // Tasks assigned to the employee directly or through any of their groups, in creation order.
+    // Cost is proportional to the result, not to the total number of tasks.
+    public List<Task> getTasksFor(Employee e) {
+        if (e == null) return Collections.emptyList();
+
+        Set<Task> mine = new LinkedHashSet<>(tasksByAssignee.getOrDefault(e, Collections.emptySet()));
+        for (Group g : groupController.getGroupsOf(e)) {
+            mine.addAll(tasksByGroup.getOrDefault(g, Collections.emptySet()));
+        }
+
+        List<Task> result = new ArrayList<>(mine);
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    // The open task the employee should work on next, direct or through a group, or null.
+    // Costs one comparison per group the employee is in; the queues are kept ordered as tasks change.
+    public Task getNextTask(Employee e) {
+        if (e == null) return null;
+        return scheduler.next(e, groupController.getGroupsOf(e));
+    }
+
+    // Open tasks assigned directly to the employee; weighted counts Urgent 4, High 3, Normal 2, Low 1
+    public long getLoad(Employee e, boolean weighted) {
+        return workload.get(e, weighted);
+    }
+
+    // Gives each task to the current member of the group with the least open work, counting the
+    // tasks handed out so far in this call. Most pressing tasks go first so they are spread widest.
+    // One journal frame and one change event. Returns how many tasks changed hands.
+    public int autoAssign(Collection<Task> targets, Group g, boolean weighted) {
+        for (Task t : targets) {
+            if (t.getId() < 0 || t.getId() >= tasks.size() || tasks.get(t.getId()) != t) {
+                throw new IllegalArgumentException("Not a stored task: " + t);
+            }
+        }
+        return distribute(new ArrayList<>(targets), g, weighted);
+    }
+
+    // Spreads all of the group's open tasks, owned or not, evenly over its members again
+    public int rebalance(Group g, boolean weighted) {
+        List<Task> backlog = new ArrayList<>();
+        for (Task t : tasksByGroup.getOrDefault(g, Collections.emptySet())) {
+            if (isOpen(t)) backlog.add(t);
+        }
+        return distribute(backlog, g, weighted);
+    }
+
+    // Makes task wait until prerequisite is Complete. Throws if either is not a stored task or
+    // the edge would make a cycle; adding an edge that already exists does nothing.
+    public void addPrerequisite(Task task, Task prerequisite) {
+        for (Task t : List.of(task, prerequisite)) {
+            if (t.getId() < 0 || t.getId() >= tasks.size() || tasks.get(t.getId()) != t) {
+                throw new IllegalArgumentException("Not a stored task: " + t);
+            }
+        }
+        if (task == prerequisite) throw new IllegalArgumentException("A task cannot wait for itself");
+        if (getPrerequisites(task).contains(prerequisite)) return;
+
+        if (!graph.add(task.getId(), prerequisite.getId(), !isOpen(prerequisite))) {
+            throw new IllegalArgumentException("\"" + prerequisite.getTitle() + "\" already waits on \""
+                    + task.getTitle() + "\", directly or indirectly; that would be a cycle");
+        }
+
+        scheduler.update(task, task.getAssignee(), task.getGroup());
+        journal(new TaskStore.Batch().addPrerequisite(task.getId(), prerequisite.getId()));
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, task));
+    }
+
+    public List<Task> getPrerequisites(Task t) {
+        return byIds(graph.getPrerequisites(t.getId()));
+    }
+
+    public List<Task> getDependents(Task t) {
+        return byIds(graph.getDependents(t.getId()));
+    }
+
+    // Ready once every prerequisite is Complete; a task without prerequisites is always ready
+    public boolean isReady(Task t) {
+        return graph.isReady(t.getId());
+    }
+
+    public Set<Task> getTasksAssignedTo(Employee e) {
+        return Collections.unmodifiableSet(tasksByAssignee.getOrDefault(e, Collections.emptySet()));
+    }
+
+    public Set<Task> getTasksOfGroup(Group g) {
+        return Collections.unmodifiableSet(tasksByGroup.getOrDefault(g, Collections.emptySet()));
+    }
+
+    // Best title/description matches for the query, best first; visible may be null for all tasks
+    public List<Task> searchTasks(String query, int limit, Predicate<Task> visible) {
+        List<Task> results = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit, visible == null ? null : id -> visible.test(tasks.get(id)))) {
+            results.add(tasks.get(id));
+        }
+        return results;
+    }
+
+    // Tasks matching every given criterion (null means any), in no particular order. Walks the
+    // smallest of the matching index buckets and checks the rest, e.g. "In-Progress tasks of group X".
+    public List<Task> getTasksMatching(Employee assignee, Group group, TaskStatus status) {
+        List<Set<Task>> buckets = new ArrayList<>();
+        if (assignee != null) buckets.add(tasksByAssignee.getOrDefault(assignee, Collections.emptySet()));
+        if (group != null) buckets.add(tasksByGroup.getOrDefault(group, Collections.emptySet()));
+        if (status != null) buckets.add(tasksByStatus.getOrDefault(status, Collections.emptySet()));
+        if (buckets.isEmpty()) return new ArrayList<>(tasks);
+
+        Set<Task> smallest = Collections.min(buckets, Comparator.comparingInt(Set::size));
+        List<Task> result = new ArrayList<>();
+        for (Task t : smallest) {
+            if (assignee != null && t.getAssignee() != assignee) continue;
+            if (group != null && t.getGroup() != group) continue;
+            if (status != null && t.getStatus() != status) continue;
+            result.add(t);
+        }
+        return result;
+    }
+
+    // Moves every given task to the new status as one change. All tasks are checked before any is
+    // touched; then the status buckets are updated, one journal frame is written and one change
+    // is published. Tasks already in that status are left alone. Returns how many tasks changed.
+    public int updateStatuses(Collection<Task> targets, TaskStatus status) {
+        if (!statuses.contains(status)) {
+            throw new IllegalArgumentException("Unknown status " + status);
+        }
+        for (Task t : targets) {
+            if (t.getId() < 0 || t.getId() >= tasks.size() || tasks.get(t.getId()) != t) {
+                throw new IllegalArgumentException("Not a stored task: " + t);
+            }
+        }
+
+        int changed = 0;
+        bulk = new TaskStore.Batch();
+        try {
+            for (Task t : targets) {
+                if (t.getStatus() == status) continue;
+
+                t.setStatus(status); // statusChanged() moves the bucket and records into bulk
+                changed++;
+            }
+        }
+        finally {
+            TaskStore.Batch batch = bulk;
+            bulk = null;
+            journal(batch);
+        }
+
+        if (changed > 0) changeBus.publish(ChangeEvent.tasksUpdated());
+        return changed;
+    }
+
+    // Everything that happened to the task, oldest first
+    public List<TaskHistory.Event> getTimeline(Task t) {
+        return history == null ? Collections.emptyList() : history.timeline(t.getId());
+    }
+
+    // Tasks by status as the board stood at the given time, statuses in workflow order.
+    // Tasks created later are left out; status changes made later are undone.
+    public Map<TaskStatus, List<Task>> getBoardAt(long millis) {
+        Map<TaskStatus, List<Task>> board = new LinkedHashMap<>();
+        for (TaskStatus s : statuses) board.put(s, new ArrayList<>());
+        if (history == null) return board;
+
+        TaskHistory.Board then = history.boardAt(millis);
+        for (int id = 0; id < then.size() && id < tasks.size(); id++) {
+            if (then.exists(id)) board.get(statuses.get(then.getStatus(id))).add(tasks.get(id));
+        }
+        return board;
+    }
+
+    // One line for a timeline, e.g. "2024-03-01 09:15  jsmith: status -> Complete"
+    public String describe(TaskHistory.Event e) {
+        String when = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(e.getTime()));
+        String who = e.getActor() < 0 ? "system" : history.name(e.getActor());
+        String what;
+        switch (e.getType()) {
+            case TaskHistory.CREATED: what = "created as " + statuses.get(e.getValue()); break;
+            case TaskHistory.ASSIGNED: what = "assigned to " + (e.getValue() < 0 ? "nobody" : history.name(e.getValue())); break;
+            case TaskHistory.GROUPED: what = "assigned to group " + (e.getValue() < 0 ? "none" : groupController.getGroups().get(e.getValue()).getName()); break;
+            default: what = "status -> " + statuses.get(e.getValue());
+        }
+        return when + "  " + who + ": " + what;
+    }
+
+    public int getStatusCount(TaskStatus status) {
+        Set<Task> bucket = tasksByStatus.get(status);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    public Set<Task> getTasksWithStatus(TaskStatus status) {
+        return Collections.unmodifiableSet(tasksByStatus.getOrDefault(status, Collections.emptySet()));
+    }
+
     public TaskStatus addStatus(String name) {
         TaskStatus s = new TaskStatus(name);
         statuses.add(s);
+
+        journal(new TaskStore.Batch().addStatus(statuses.size() - 1, name));
+        changeBus.publish(ChangeEvent.statusAdded(s));
         return s;
     }
 
+    // Index, journal and change-bus hooks
+
+    @Override
+    public void assigneeChanged(Task task, Employee previous) {
+        Employee e = task.getAssignee();
+        move(tasksByAssignee, task, previous, e);
+        scheduler.update(task, previous, task.getGroup());
+        workload.update(task, isOpen(task));
+        if (history != null) remember(TaskHistory.ASSIGNED, task, history.nameId(e == null ? null : e.getUsername()));
+        if (bulk != null) {
+            bulk.assignEmployee(task.getId(), e == null ? null : e.getUsername());
+            return;
+        }
+        journal(new TaskStore.Batch().assignEmployee(task.getId(), e == null ? null : e.getUsername()));
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, task));
+    }
+
+    @Override
+    public void groupChanged(Task task, Group previous) {
+        Group g = task.getGroup();
+        move(tasksByGroup, task, previous, g);
+        scheduler.update(task, task.getAssignee(), previous);
+        journal(new TaskStore.Batch().assignGroup(task.getId(), g == null ? -1 : g.getId()));
+        remember(TaskHistory.GROUPED, task, g == null ? -1 : g.getId());
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, task));
+    }
+
+    @Override
+    public void statusChanged(Task task, TaskStatus previous) {
+        move(tasksByStatus, task, previous, task.getStatus());
+        scheduler.update(task, task.getAssignee(), task.getGroup());
+        workload.update(task, isOpen(task));
+        completionChanged(task, previous);
+        if (trackDeadline(task, minute(LocalDateTime.now()))) changeBus.publish(ChangeEvent.escalationsChanged());
+        remember(TaskHistory.STATUS, task, statuses.indexOf(task.getStatus()));
+        if (bulk != null) {
+            bulk.setStatus(task.getId(), statuses.indexOf(task.getStatus()));
+            return;
+        }
+        journal(new TaskStore.Batch().setStatus(task.getId(), statuses.indexOf(task.getStatus())));
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, task));
+    }
+
+    @Override
+    public void scheduleChanged(Task task) {
+        scheduler.update(task, task.getAssignee(), task.getGroup());
+        workload.update(task, isOpen(task));
+        journal(new TaskStore.Batch().setSchedule(task.getId(), task.getPriority().ordinal(), dueSeconds(task.getDueDate())));
+        changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, task));
+    }
+
+    @Override
+    public void groupCreated(Group group) {
+        journal(new TaskStore.Batch().createGroup(group.getId(), group.getName()));
+    }
+
+    // A dynamic group's members follow from its rule, which is journaled instead
+    @Override
+    public void memberAdded(Group group, Employee member) {
+        if (group.isDynamic()) return;
+        journal(new TaskStore.Batch().joinGroup(group.getId(), member.getUsername()));
+    }
+
+    @Override
+    public void memberRemoved(Group group, Employee member) {
+        if (group.isDynamic()) return;
+        journal(new TaskStore.Batch().leaveGroup(group.getId(), member.getUsername()));
+    }
+
+    @Override
+    public void ruleChanged(Group group) {
+        GroupRule rule = group.getRule();
+        journal(new TaskStore.Batch().setGroupRule(group.getId(), rule == null ? "" : rule.toString()));
+    }
+
+    @Override
+    public void subgroupAdded(Group group, Group subgroup) {
+        journal(new TaskStore.Batch().addSubgroup(group.getId(), subgroup.getId()));
+    }
+
+    private <K> void move(Map<K, Set<Task>> index, Task task, K from, K to) {
+        if (from == to) return;
+
+        if (from != null) {
+            Set<Task> old = index.get(from);
+            if (old != null) {
+                old.remove(task);
+                if (old.isEmpty()) index.remove(from);
+            }
+        }
+        if (to != null) {
+            index.computeIfAbsent(to, k -> new LinkedHashSet<>()).add(task);
+        }
+    }
+
+    private void remember(int type, Task task, int value) {
+        if (history == null) return;
+
+        Employee actor = employeeController.getCurrentUser();
+        history.record(type, task.getId(), value, history.nameId(actor == null ? null : actor.getUsername()),
+                System.currentTimeMillis());
+    }
+
+    private void rememberCreated(Task t) {
+        remember(TaskHistory.CREATED, t, statuses.indexOf(t.getStatus()));
+        if (t.getAssignee() != null) remember(TaskHistory.ASSIGNED, t, history.nameId(t.getAssignee().getUsername()));
+        if (t.getGroup() != null) remember(TaskHistory.GROUPED, t, t.getGroup().getId());
+    }
+
+    private void openHistory() {
+        TaskHistory loaded = new TaskHistory(Path.of(HISTORY_PATH));
+        try {
+            loaded.load();
+            history = loaded;
+
+            // Tasks from before the history existed (or a lost history file) start from now
+            for (int id = history.getTaskCount(); id < tasks.size(); id++) {
+                rememberCreated(tasks.get(id));
+            }
+        }
+        catch (Exception e) {
+            System.out.println("Task history unavailable: " + e.getMessage());
+        }
+    }
+
+    // Adds a fully formed task and its records to the batch, without per-task journaling or events
+    private Task appendTask(TaskStore.Batch batch, String title, String description, TaskStatus status,
+                            TaskPriority priority, LocalDateTime due, Employee assignee, Group group) {
+        // Assign before attaching the listener so nothing is journaled or published per task
+        Task t = new Task(tasks.size(), title, description, status);
+        t.assignEmployee(assignee);
+        t.assignGroup(group);
+        t.setSchedule(priority, due);
+        t.setListener(this);
+        tasks.add(t);
+
+        move(tasksByStatus, t, null, t.getStatus());
+        move(tasksByAssignee, t, null, t.getAssignee());
+        move(tasksByGroup, t, null, t.getGroup());
+        searchIndex.add(t.getId(), t.getTitle(), t.getDescription());
+        scheduler.update(t, null, null);
+        workload.update(t, isOpen(t));
+
+        createRecords(batch, t);
+        rememberCreated(t);
+        trackDeadline(t, minute(LocalDateTime.now()));
+        return t;
+    }
+
+    // Sets a timer for every active template and generates whatever came due while the app was closed
+    private void startTemplates() {
+        LocalDateTime now = LocalDateTime.now();
+        wheel = new TimerWheel(minute(now));
+        for (TaskTemplate template : templates) {
+            if (template.isActive()) wheel.schedule(generateAt(template), template.getId());
+        }
+        tick(now);
+    }
+
+    // Starts every task's clock from when it entered its current status, as far as the history
+    // knows, and escalates whatever ran out while the app was closed
+    private void startDeadlines() {
+        long now = minute(LocalDateTime.now());
+        for (Task t : tasks) {
+            int status = statuses.indexOf(t.getStatus());
+            long since = now;
+            if (history != null && history.getStatus(t.getId()) == status && history.getStatusTime(t.getId()) >= 0) {
+                since = minute(LocalDateTime.ofInstant(Instant.ofEpochMilli(history.getStatusTime(t.getId())), ZoneId.systemDefault()));
+            }
+            sla.track(t.getId(), status, since);
+        }
+        deadlinesStarted = true;
+        checkDeadlines(LocalDateTime.now());
+    }
+
+    // Restarts the task's clock in its status. Returns whether an escalation was resolved.
+    private boolean trackDeadline(Task t, long from) {
+        if (!deadlinesStarted || !sla.track(t.getId(), statuses.indexOf(t.getStatus()), from)) return false;
+
+        Employee admin = escalatedTo.remove(t);
+        if (admin != null) {
+            Set<Task> inbox = escalations.get(admin);
+            inbox.remove(t);
+            if (inbox.isEmpty()) escalations.remove(admin);
+        }
+        return true;
+    }
+
+    // Escalates every task whose time limit has run out by now; only their timers are looked at
+    private void checkDeadlines(LocalDateTime now) {
+        if (!deadlinesStarted) return;
+
+        List<Task> expired = new ArrayList<>();
+        sla.advance(minute(now), id -> expired.add(tasks.get(id)));
+        if (expired.isEmpty()) return;
+
+        List<Employee> admins = groupController.getAdmins().getMembers();
+        Map<Group, List<Employee>> adminsByGroup = new HashMap<>();
+        Map<String, List<Employee>> adminsByDepartment = new HashMap<>();
+        for (Employee admin : admins) {
+            for (Group g : groupController.getGroupsOf(admin)) adminsByGroup.computeIfAbsent(g, k -> new ArrayList<>()).add(admin);
+            adminsByDepartment.computeIfAbsent(admin.getDepartment(), k -> new ArrayList<>()).add(admin);
+        }
+
+        for (Task t : expired) {
+            // Preferably an admin in the task's group, else one in the assignee's department, else any
+            List<Employee> candidates = adminsByGroup.get(t.getGroup());
+            if (candidates == null && t.getAssignee() != null) candidates = adminsByDepartment.get(t.getAssignee().getDepartment());
+            if (candidates == null) candidates = admins;
+            if (candidates.isEmpty()) continue; // Still flagged overdue; there is nobody to tell
+
+            Employee admin = candidates.get(Math.floorMod(escalationTurn++, candidates.size()));
+
+            escalatedTo.put(t, admin);
+            escalations.computeIfAbsent(admin, k -> new LinkedHashSet<>()).add(t);
+        }
+
+        changeBus.publish(ChangeEvent.escalationsChanged());
+    }
+
+    private static LocalDateTime nextOccurrence(TaskTemplate template) {
+        RecurrenceRule rule = template.getRule();
+        LocalDateTime last = template.getLastGenerated();
+        return last == null ? rule.getStart() : rule.nextAfter(last);
+    }
+
+    // The minute at which the template's next occurrence enters the look-ahead window
+    private static long generateAt(TaskTemplate template) {
+        return minute(nextOccurrence(template)) - LOOKAHEAD_MINUTES;
+    }
+
+    static long minute(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private boolean isOpen(Task t) {
+        return t.getStatus() != statuses.get(COMPLETE);
+    }
+
+    // Updates the dependents of a task that just moved into or out of Complete; only dependents
+    // whose readiness flipped are touched again
+    private void completionChanged(Task task, TaskStatus previous) {
+        boolean wasComplete = previous == statuses.get(COMPLETE);
+        if (wasComplete == !isOpen(task)) return;
+
+        for (int id : graph.completionChanged(task.getId(), !wasComplete)) {
+            Task dependent = tasks.get(id);
+            scheduler.update(dependent, dependent.getAssignee(), dependent.getGroup());
+            if (bulk == null) changeBus.publish(ChangeEvent.task(ChangeEvent.Kind.TASK_CHANGED, dependent));
+        }
+    }
+
+    private List<Task> byIds(int[] ids) {
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) result.add(tasks.get(id));
+        return result;
+    }
+
+    private int distribute(List<Task> targets, Group g, boolean weighted) {
+        // Members, including those of subgroups, still on the roster
+        List<Employee> members = new ArrayList<>();
+        for (Employee e : employeeController.resolve(groupController.getAllMembers(g))) {
+            if (e != null && employeeController.getEmployees().get(e.getUsername()) == e) members.add(e);
+        }
+        if (members.isEmpty() || targets.isEmpty()) return 0;
+
+        Map<Employee, Integer> index = new HashMap<>();
+        long[] load = new long[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            index.put(members.get(i), i);
+            load[i] = workload.get(members.get(i), weighted);
+        }
+
+        // The tasks being handed out no longer count against whoever holds them now
+        for (Task t : targets) {
+            Integer holder = index.get(t.getAssignee());
+            if (holder != null && isOpen(t)) load[holder] -= Workload.cost(t, weighted);
+        }
+
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(
+                Comparator.<Integer>comparingLong(i -> load[i]).thenComparingInt(i -> i));
+        for (int i = 0; i < members.size(); i++) leastLoaded.add(i);
+
+        targets.sort(TaskScheduler.ORDER);
+        int changed = 0;
+        bulk = new TaskStore.Batch();
+        try {
+            for (Task t : targets) {
+                int i = leastLoaded.poll();
+                load[i] += Workload.cost(t, weighted);
+                leastLoaded.add(i);
+
+                if (t.getAssignee() != members.get(i)) {
+                    t.assignEmployee(members.get(i)); // assigneeChanged() updates the indexes and records into bulk
+                    changed++;
+                }
+            }
+        }
+        finally {
+            TaskStore.Batch batch = bulk;
+            bulk = null;
+            journal(batch);
+        }
+
+        if (changed > 0) changeBus.publish(ChangeEvent.tasksUpdated());
+        return changed;
+    }
+
+    // The records that recreate the task as it is now
+    private void createRecords(TaskStore.Batch batch, Task t) {
+        batch.createTask(t.getId(), t.getTitle(), t.getDescription(), statuses.indexOf(t.getStatus()));
+        if (t.getAssignee() != null) batch.assignEmployee(t.getId(), t.getAssignee().getUsername());
+        if (t.getGroup() != null) batch.assignGroup(t.getId(), t.getGroup().getId());
+        if (t.getPriority() != TaskPriority.NORMAL || t.getDueDate() != null) {
+            batch.setSchedule(t.getId(), t.getPriority().ordinal(), dueSeconds(t.getDueDate()));
+        }
+    }
+
+    private static long dueSeconds(LocalDateTime due) {
+        return due == null ? Long.MIN_VALUE : due.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void journal(TaskStore.Batch batch) {
+        // Compact once the journal outgrows the state, so the rewrite cost stays amortised per event
+        long threshold = Math.max(COMPACT_AFTER_RECORDS, tasks.size());
+        if (store.append(batch) && store.getRecordsSinceSnapshot() >= threshold) {
+            compact();
+        }
+    }
+
+    // Replaces the journal with the minimal set of records that rebuild the current state
+    private void compact() {
+        long start = System.nanoTime();
+        TaskStore.Batch state = new TaskStore.Batch();
+
+        for (int i = 0; i < statuses.size(); i++) {
+            state.addStatus(i, statuses.get(i).getName());
+        }
+
+        for (Group g : groupController.getGroups()) {
+            state.createGroup(g.getId(), g.getName());
+            if (g.isDynamic()) {
+                state.setGroupRule(g.getId(), g.getRule().toString());
+                continue;
+            }
+            for (Employee e : g.getMembers()) {
+                state.joinGroup(g.getId(), e.getUsername());
+            }
+        }
+        for (Group g : groupController.getGroups()) {
+            for (Group subgroup : g.getSubgroups()) state.addSubgroup(g.getId(), subgroup.getId());
+        }
+
+        for (Task t : tasks) {
+            createRecords(state, t);
+        }
+        for (Task t : tasks) {
+            for (int prerequisite : graph.getPrerequisites(t.getId())) state.addPrerequisite(t.getId(), prerequisite);
+        }
+
+        for (TaskTemplate template : templates) {
+            RecurrenceRule rule = template.getRule();
+            state.addTemplate(template.getId(), template.getTitle(), template.getDescription(), template.getPriority().ordinal(),
+                    template.getAssignee() == null ? null : template.getAssignee().getUsername(),
+                    template.getGroup() == null ? -1 : template.getGroup().getId(),
+                    dueSeconds(rule.getStart()), rule.getEvery(), rule.getUnit().name());
+            if (template.getLastGenerated() != null) state.templateGenerated(template.getId(), dueSeconds(template.getLastGenerated()));
+            if (!template.isActive()) state.stopTemplate(template.getId());
+        }
+
+        for (int i = 0; i < statuses.size(); i++) {
+            if (sla.getLimit(i) > 0) state.setDeadline(i, sla.getLimit(i));
+        }
+
+        store.checkpoint(state);
+        System.out.println("Compacted task journal (" + tasks.size() + " tasks) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // Applies recovered records directly, without journaling them again
+    private class Recovery implements TaskStore.Replay {
+        private final EmployeeController employeeController;
+        private final GroupController groupController;
+
+        Recovery(EmployeeController employeeController, GroupController groupController) {
+            this.employeeController = employeeController;
+            this.groupController = groupController;
+        }
+
+        @Override
+        public void createTask(int taskId, String title, String description, int status) {
+            Task t = new Task(taskId, title, description, status(status));
+            t.setListener(TaskController.this);
+            tasks.add(t);
+            move(tasksByStatus, t, null, t.getStatus());
+            searchIndex.add(taskId, title, description);
+        }
+
+        @Override
+        public void assignEmployee(int taskId, String username) {
+            tasks.get(taskId).assignEmployee(username == null ? null : employeeController.getEmployees().get(username));
+        }
+
+        @Override
+        public void assignGroup(int taskId, int groupId) {
+            tasks.get(taskId).assignGroup(groupId < 0 ? null : groupController.getGroups().get(groupId));
+        }
+
+        @Override
+        public void setStatus(int taskId, int status) {
+            tasks.get(taskId).setStatus(status(status));
+        }
+
+        @Override
+        public void addStatus(int statusId, String name) {
+            // Built-in statuses are recorded too, by snapshots
+            if (statusId >= statuses.size()) statuses.add(new TaskStatus(name));
+        }
+
+        @Override
+        public void createGroup(int groupId, String name) {
+            // Built-in groups are recorded too, by snapshots
+            if (groupId >= groupController.getGroups().size()) groupController.createGroup(name);
+        }
+
+        @Override
+        public void joinGroup(int groupId, String username) {
+            Employee e = employeeController.getEmployees().get(username);
+            Group g = groupController.getGroups().get(groupId);
+
+            // Employees who have left the roster are dropped; repeats are ignored by the group
+            if (e != null) g.addEmployee(e);
+        }
+
+        @Override
+        public void leaveGroup(int groupId, String username) {
+            Employee e = employeeController.getEmployees().get(username);
+            if (e != null) groupController.getGroups().get(groupId).removeEmployee(e);
+        }
+
+        @Override
+        public void setGroupRule(int groupId, String rule) {
+            try {
+                groupController.getGroups().get(groupId).setRule(rule.isEmpty() ? null : GroupRule.parse(rule));
+            }
+            catch (IllegalArgumentException e) {
+                System.out.println("Task journal: skipped rule for group " + groupId + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void addSubgroup(int groupId, int subgroupId) {
+            try {
+                groupController.addSubgroup(groupController.getGroups().get(groupId), groupController.getGroups().get(subgroupId));
+            }
+            catch (IllegalArgumentException e) {
+                System.out.println("Task journal: skipped nesting group " + subgroupId + " in " + groupId + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void setSchedule(int taskId, int priority, long dueSeconds) {
+            LocalDateTime due = dueSeconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(dueSeconds, 0, ZoneOffset.UTC);
+            tasks.get(taskId).setSchedule(TaskPriority.values()[priority], due);
+        }
+
+        @Override
+        public void addPrerequisite(int taskId, int prerequisiteId) {
+            Task t = tasks.get(taskId);
+            if (!graph.add(taskId, prerequisiteId, !isOpen(tasks.get(prerequisiteId)))) {
+                System.out.println("Task journal: skipped prerequisite " + prerequisiteId + " of task " + taskId);
+                return;
+            }
+            scheduler.update(t, t.getAssignee(), t.getGroup());
+        }
+
+        @Override
+        public void addTemplate(int templateId, String title, String description, int priority, String username,
+                                int groupId, long startSeconds, int every, String unit) {
+            RecurrenceRule rule = new RecurrenceRule(LocalDateTime.ofEpochSecond(startSeconds, 0, ZoneOffset.UTC),
+                    every, ChronoUnit.valueOf(unit));
+            Employee assignee = username == null ? null : employeeController.getEmployees().get(username);
+            Group group = groupId < 0 ? null : groupController.getGroups().get(groupId);
+            TaskTemplate template = new TaskTemplate(templateId, title, description, TaskPriority.values()[priority], assignee, group, rule);
+            templates.add(template);
+
+            // The assignee has left the roster; nobody would get the occurrences
+            if (assignee == null && group == null) template.stop();
+        }
+
+        @Override
+        public void templateGenerated(int templateId, long occurrenceSeconds) {
+            templates.get(templateId).setLastGenerated(LocalDateTime.ofEpochSecond(occurrenceSeconds, 0, ZoneOffset.UTC));
+        }
+
+        @Override
+        public void stopTemplate(int templateId) {
+            templates.get(templateId).stop();
+        }
+
+        @Override
+        public void setDeadline(int status, int minutes) {
+            sla.setLimit(status, minutes);
+        }
+
+        private TaskStatus status(int index) {
+            return index < 0 ? null : statuses.get(index);
+        }
+    }
+
 }
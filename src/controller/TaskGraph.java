@@ -0,0 +1,118 @@
+package controller;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+// Prerequisite edges between tasks, by task id, kept acyclic. Each task counts how many of its
+// prerequisites are not yet complete; it is ready when that count is zero. Completing (or
+// re-opening) a task only touches its direct dependents' counts, so the work per status change
+// is proportional to the number of dependents, never to the size of the graph.
+class TaskGraph {
+
+    private int[][] prerequisites = new int[0][];
+    private int[] prerequisiteCount = new int[0];
+    private int[][] dependents = new int[0][];
+    private int[] dependentCount = new int[0];
+    private int[] unmet = new int[0]; // Incomplete prerequisites per task
+
+    // Adds "task waits for prerequisite". Returns false, changing nothing, if the edge already
+    // exists or would close a cycle (including a task waiting for itself).
+    boolean add(int task, int prerequisite, boolean prerequisiteComplete) {
+        ensure(Math.max(task, prerequisite));
+        if (task == prerequisite || contains(prerequisites[task], prerequisiteCount[task], prerequisite)) return false;
+        if (reaches(task, prerequisite)) return false;
+
+        prerequisites[task] = append(prerequisites[task], prerequisiteCount[task]++, prerequisite);
+        dependents[prerequisite] = append(dependents[prerequisite], dependentCount[prerequisite]++, task);
+        if (!prerequisiteComplete) unmet[task]++;
+        return true;
+    }
+
+    // Call when a task moves into or out of the complete status. Returns the dependents whose
+    // readiness flipped as a result.
+    int[] completionChanged(int task, boolean complete) {
+        if (task >= dependents.length) return new int[0];
+
+        int[] flipped = new int[dependentCount[task]];
+        int n = 0;
+        for (int i = 0; i < dependentCount[task]; i++) {
+            int dependent = dependents[task][i];
+            if (complete) {
+                if (--unmet[dependent] == 0) flipped[n++] = dependent;
+            }
+            else {
+                if (unmet[dependent]++ == 0) flipped[n++] = dependent;
+            }
+        }
+        return Arrays.copyOf(flipped, n);
+    }
+
+    boolean isReady(int task) {
+        return task >= unmet.length || unmet[task] == 0;
+    }
+
+    int getUnmet(int task) {
+        return task < unmet.length ? unmet[task] : 0;
+    }
+
+    int[] getPrerequisites(int task) {
+        return task < prerequisites.length ? Arrays.copyOf(prerequisites[task], prerequisiteCount[task]) : new int[0];
+    }
+
+    int[] getDependents(int task) {
+        return task < dependents.length ? Arrays.copyOf(dependents[task], dependentCount[task]) : new int[0];
+    }
+
+    // Helper Methods
+
+    // Whether target can be reached from start by following dependents; visits only the part of
+    // the graph downstream of start
+    private boolean reaches(int start, int target) {
+        Set<Integer> seen = new HashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            int at = pending.pop();
+            if (at == target) return true;
+            for (int i = 0; i < dependentCount[at]; i++) {
+                int next = dependents[at][i];
+                if (seen.add(next)) pending.push(next);
+            }
+        }
+        return false;
+    }
+
+    private void ensure(int task) {
+        if (task < unmet.length) return;
+
+        int capacity = Math.max(task + 1, unmet.length * 2);
+        int[] empty = new int[0];
+        int old = unmet.length;
+        prerequisites = Arrays.copyOf(prerequisites, capacity);
+        dependents = Arrays.copyOf(dependents, capacity);
+        for (int i = old; i < capacity; i++) {
+            prerequisites[i] = empty;
+            dependents[i] = empty;
+        }
+        prerequisiteCount = Arrays.copyOf(prerequisiteCount, capacity);
+        dependentCount = Arrays.copyOf(dependentCount, capacity);
+        unmet = Arrays.copyOf(unmet, capacity);
+    }
+
+    private static int[] append(int[] list, int size, int value) {
+        if (size == list.length) list = Arrays.copyOf(list, Math.max(2, size * 2));
+        list[size] = value;
+        return list;
+    }
+
+    private static boolean contains(int[] list, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) return true;
+        }
+        return false;
+    }
+
+}
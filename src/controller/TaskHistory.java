@@ -0,0 +1,560 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Append-only history of every task creation, assignment and status change, with when it
+// happened and who did it. Tasks, groups and statuses are stored by number (task id, group id,
+// status position); employees by their position in a table of usernames kept with the history.
+//
+// Events are packed into blocks of BLOCK_EVENTS. Inside a block each event is a header byte plus
+// varints holding deltas from the previous event: time since it, distance to its task id, and
+// the actor only when it changed. A typical event takes 4-7 bytes. Each block starts from fixed
+// base values so it decodes on its own. The first event of a task in a block also stores how far
+// back the task's previous block is, so a timeline walks only the blocks that mention the task.
+//
+// For "the board as of time T" the history keeps checkpoints: the status, assignee and group of
+// every task, packed as varints and taken when a block is sealed once enough events have passed.
+// A query decodes the last checkpoint before T and replays at most that many events after it.
+//
+// Sealed blocks are appended to a file and replayed by load(). Events in the open block are
+// written at close(), so a crash loses at most one block of history; the tasks themselves are
+// safe in the TaskStore journal.
+public class TaskHistory {
+
+    public static final int CREATED = 0;  // value = status
+    public static final int ASSIGNED = 1; // value = name id, or -1
+    public static final int GROUPED = 2;  // value = group id, or -1
+    public static final int STATUS = 3;   // value = status
+
+    private static final int MAGIC = 0x4D545448; // "MTTH"
+    private static final int VERSION = 1;
+    private static final int BLOCK_EVENTS = 4096;
+    private static final int CHECKPOINT_EVENTS = 1 << 20; // Minimum events between checkpoints
+
+    private static final int SAME_ACTOR = 4;
+    private static final int FIRST_IN_BLOCK = 8;
+
+    public static class Event {
+        private final long time;
+        private final int actor;
+        private final int type;
+        private final int taskId;
+        private final int value;
+
+        Event(long time, int actor, int type, int taskId, int value) {
+            this.time = time;
+            this.actor = actor;
+            this.type = type;
+            this.taskId = taskId;
+            this.value = value;
+        }
+
+        public long getTime() { return time; }
+        public int getActor() { return actor; } // Name id, or -1 when nobody was logged in
+        public int getType() { return type; }
+        public int getTaskId() { return taskId; }
+        public int getValue() { return value; }
+    }
+
+    // Every task's status, assignee and group at some instant; -1 where unset or not yet created
+    public static class Board {
+        private final int size;
+        private final int[] status;
+        private final int[] assignee;
+        private final int[] group;
+
+        Board(int size, int[] status, int[] assignee, int[] group) {
+            this.size = size;
+            this.status = status;
+            this.assignee = assignee;
+            this.group = group;
+        }
+
+        public int size() { return size; } // Task ids below this may exist
+        public boolean exists(int taskId) { return taskId < size && status[taskId] >= 0; }
+        public int getStatus(int taskId) { return taskId < size ? status[taskId] : -1; }
+        public int getAssignee(int taskId) { return taskId < size ? assignee[taskId] : -1; }
+        public int getGroup(int taskId) { return taskId < size ? group[taskId] : -1; }
+    }
+
+    private static class Block {
+        private final long baseTime;
+        private final int events;
+        private final byte[] bytes;
+
+        Block(long baseTime, int events, byte[] bytes) {
+            this.baseTime = baseTime;
+            this.events = events;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Checkpoint {
+        private final int block;  // State after this block
+        private final long time;  // Time of the block's last event
+        private final int size;
+        private final byte[] state;
+
+        Checkpoint(int block, long time, int size, byte[] state) {
+            this.block = block;
+            this.time = time;
+            this.size = size;
+            this.state = state;
+        }
+    }
+
+    private final Path path;
+    private FileChannel file;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+    private long eventsSinceCheckpoint;
+    private long eventCount;
+
+    // Open block
+    private byte[] buf = new byte[BLOCK_EVENTS * 6];
+    private int len;
+    private int blockEvents;
+    private long baseTime;
+    private long prevTime;
+    private int prevTask;
+    private int prevActor;
+
+    // Usernames of actors and assignees; events hold their position here, which unlike a
+    // roster index stays the same across restarts
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private int namesWritten; // Names already saved with a sealed block
+
+    // Current board, plus the last block each task appeared in
+    private int taskCount;
+    private int[] status = new int[1024];
+    private int[] assignee = new int[1024];
+    private int[] group = new int[1024];
+    private int[] lastBlock = new int[1024];
+    private long[] statusTime = new long[1024]; // When each task got its current status
+
+    public TaskHistory(Path path) {
+        this.path = path;
+        Arrays.fill(status, -1);
+        Arrays.fill(assignee, -1);
+        Arrays.fill(group, -1);
+        Arrays.fill(lastBlock, -1);
+        startBlock(0);
+    }
+
+    // Replays the history file, drops any torn block at its tail and opens it for appending.
+    // Returns the number of events loaded.
+    public long load() throws IOException {
+        long valid = 8;
+        if (Files.exists(path) && Files.size(path) >= 8) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    throw new IOException("Unrecognised task history " + path);
+                }
+
+                // [length][body][crc32c] per block, where body is
+                // [baseTime][events][new name count][names as UTF-8 with a short length][event bytes]
+                while (buffer.remaining() >= 4) {
+                    int length = buffer.getInt(buffer.position());
+                    if (length < 16 || length > buffer.remaining() - 8) break;
+
+                    byte[] framed = new byte[4 + length];
+                    buffer.get(framed);
+                    int crc = buffer.getInt();
+                    if (crc != crc(framed)) break;
+
+                    ByteBuffer body = ByteBuffer.wrap(framed, 4, length);
+                    long blockBase = body.getLong();
+                    int events = body.getInt();
+                    int newNames = body.getInt();
+                    for (int i = 0; i < newNames; i++) {
+                        byte[] name = new byte[body.getShort() & 0xFFFF];
+                        body.get(name);
+                        nameId(new String(name, StandardCharsets.UTF_8));
+                    }
+                    replayBlock(blockBase, events, Arrays.copyOfRange(framed, body.position(), framed.length));
+                    valid = buffer.position();
+                }
+            }
+        }
+
+        file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (file.size() < 8) {
+            file.write(ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip(), 0);
+        }
+        file.truncate(valid);
+        file.position(valid);
+        return eventCount;
+    }
+
+    // Position of the username in the name table, adding it if new; -1 for null
+    public int nameId(String username) {
+        if (username == null) return -1;
+
+        Integer id = nameIds.get(username);
+        if (id == null) {
+            id = names.size();
+            names.add(username);
+            nameIds.put(username, id);
+        }
+        return id;
+    }
+
+    public String name(int id) {
+        return id < 0 ? null : names.get(id);
+    }
+
+    public int getTaskCount() { return taskCount; }
+
+    // The task's current status as recorded here, or -1 if unknown
+    public int getStatus(int taskId) {
+        return taskId < taskCount ? status[taskId] : -1;
+    }
+
+    // When the task was created or last changed status, or -1 if unknown
+    public long getStatusTime(int taskId) {
+        return taskId < taskCount && status[taskId] >= 0 ? statusTime[taskId] : -1;
+    }
+
+    public void record(int type, int taskId, int value, int actor, long time) {
+        if (time < prevTime) time = prevTime; // Keeps deltas non-negative if the clock steps back
+        if (blockEvents == 0) {
+            baseTime = time;
+            prevTime = time;
+        }
+        ensureTask(taskId);
+
+        boolean first = lastBlock[taskId] != blocks.size();
+        boolean sameActor = actor == prevActor;
+
+        ensureBuf(32);
+        buf[len++] = (byte) (type | (sameActor ? SAME_ACTOR : 0) | (first ? FIRST_IN_BLOCK : 0));
+        putVarLong(time - prevTime);
+        putVarInt(zigzag(taskId - prevTask));
+        if (!sameActor) putVarInt(actor + 1);
+        putVarInt(value + 1);
+        if (first) putVarInt(blocks.size() - lastBlock[taskId]);
+
+        prevTime = time;
+        prevTask = taskId;
+        prevActor = actor;
+        lastBlock[taskId] = blocks.size();
+        blockEvents++;
+        eventCount++;
+        eventsSinceCheckpoint++;
+        apply(type, taskId, value, status, assignee, group);
+        if (type == CREATED || type == STATUS) statusTime[taskId] = time;
+
+        if (blockEvents == BLOCK_EVENTS) sealBlock(true);
+    }
+
+    // The task's events, oldest first
+    public List<Event> timeline(int taskId) {
+        List<Event> events = new ArrayList<>();
+        if (taskId >= taskCount) return events;
+
+        int block = lastBlock[taskId];
+        while (block >= 0) {
+            List<Event> inBlock = new ArrayList<>();
+            int previous = decode(block, Long.MAX_VALUE, (e, back) -> {
+                if (e.taskId == taskId) inBlock.add(e);
+            }, taskId);
+
+            Collections.reverse(inBlock);
+            events.addAll(inBlock);
+            block = previous;
+        }
+        Collections.reverse(events);
+        return events;
+    }
+
+    // The board as it stood at the given time, counting events at exactly that time
+    public Board boardAt(long time) {
+        int start = 0;
+        int size = 0;
+        int[] s = new int[Math.max(taskCount, 1)];
+        int[] a = new int[s.length];
+        int[] g = new int[s.length];
+        Arrays.fill(s, -1);
+        Arrays.fill(a, -1);
+        Arrays.fill(g, -1);
+
+        Checkpoint checkpoint = checkpointAtOrBefore(time);
+        if (checkpoint != null) {
+            ByteBuffer state = ByteBuffer.wrap(checkpoint.state);
+            for (int t = 0; t < checkpoint.size; t++) {
+                s[t] = getVarInt(state) - 1;
+                a[t] = getVarInt(state) - 1;
+                g[t] = getVarInt(state) - 1;
+            }
+            size = checkpoint.size;
+            start = checkpoint.block + 1;
+        }
+
+        int[] board = {size};
+        for (int block = start; block <= blocks.size(); block++) {
+            if (block < blocks.size() && blocks.get(block).baseTime > time) break;
+            if (block == blocks.size() && (blockEvents == 0 || baseTime > time)) break;
+
+            decode(block, time, (e, back) -> {
+                apply(e.type, e.taskId, e.value, s, a, g);
+                board[0] = Math.max(board[0], e.taskId + 1);
+            }, -1);
+        }
+        return new Board(board[0], s, a, g);
+    }
+
+    public long getEventCount() { return eventCount; }
+
+    // Approximate heap used by encoded events and checkpoints
+    public long getBytesUsed() {
+        long bytes = len;
+        for (Block b : blocks) bytes += b.bytes.length + 32;
+        for (Checkpoint c : checkpoints) bytes += c.state.length + 32;
+        return bytes;
+    }
+
+    // Writes the open block, so close() plus load() loses nothing
+    public void close() {
+        if (file == null) return;
+        try {
+            if (blockEvents > 0) sealBlock(false);
+            file.force(false);
+            file.close();
+        }
+        catch (IOException e) {
+            System.out.println("Failed to close task history: " + e.getMessage());
+        }
+        file = null;
+    }
+
+    // Helper Methods
+
+    private interface EventSink {
+        void accept(Event e, int backPointer);
+    }
+
+    // Decodes one block, stopping after the last event at or before until. Returns the previous
+    // block of the given task (from its first event here), or -1.
+    private int decode(int blockIndex, long until, EventSink sink, int backFor) {
+        byte[] bytes;
+        int end;
+        long time;
+        if (blockIndex < blocks.size()) {
+            Block b = blocks.get(blockIndex);
+            bytes = b.bytes;
+            end = bytes.length;
+            time = b.baseTime;
+        }
+        else {
+            bytes = buf;
+            end = len;
+            time = baseTime;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, end);
+        int task = 0;
+        int actor = -1;
+        int previousBlock = -1;
+        while (in.hasRemaining()) {
+            int header = in.get();
+            time += getVarLong(in);
+            task += unzigzag(getVarInt(in));
+            if ((header & SAME_ACTOR) == 0) actor = getVarInt(in) - 1;
+            int value = getVarInt(in) - 1;
+            int back = ((header & FIRST_IN_BLOCK) != 0) ? blockIndex - getVarInt(in) : -1;
+
+            if (time > until) break;
+            if (task == backFor && back != -1) previousBlock = back;
+            sink.accept(new Event(time, actor, header & 3, task, value), back);
+        }
+        return previousBlock;
+    }
+
+    private static void apply(int type, int taskId, int value, int[] s, int[] a, int[] g) {
+        switch (type) {
+            case CREATED:
+            case STATUS: s[taskId] = value; break;
+            case ASSIGNED: a[taskId] = value; break;
+            case GROUPED: g[taskId] = value; break;
+        }
+    }
+
+    private void replayBlock(long blockBase, int events, byte[] bytes) {
+        // Re-decode through record() so the board, back pointers and checkpoints are rebuilt
+        // exactly as they were; the file is not open yet, so nothing is written again
+        Block b = new Block(blockBase, events, bytes);
+        blocks.add(b);
+        List<Event> decoded = new ArrayList<>(events);
+        decode(blocks.size() - 1, Long.MAX_VALUE, (e, back) -> decoded.add(e), -1);
+        blocks.remove(blocks.size() - 1);
+
+        for (Event e : decoded) {
+            record(e.type, e.taskId, e.value, e.actor, e.time);
+        }
+        if (blockEvents > 0) sealBlock(false); // A short block written by close()
+    }
+
+    private void sealBlock(boolean allowCheckpoint) {
+        byte[] bytes = Arrays.copyOf(buf, len);
+        blocks.add(new Block(baseTime, blockEvents, bytes));
+
+        if (file != null) {
+            try {
+                List<byte[]> newNames = new ArrayList<>();
+                int namesLength = 0;
+                for (String name : names.subList(namesWritten, names.size())) {
+                    byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                    newNames.add(utf8);
+                    namesLength += 2 + utf8.length;
+                }
+
+                int length = 16 + namesLength + bytes.length;
+                ByteBuffer framed = ByteBuffer.allocate(4 + length + 4);
+                framed.putInt(length).putLong(baseTime).putInt(blockEvents).putInt(newNames.size());
+                for (byte[] utf8 : newNames) framed.putShort((short) utf8.length).put(utf8);
+                framed.put(bytes);
+                framed.putInt(crc(Arrays.copyOf(framed.array(), 4 + length)));
+                framed.flip();
+                while (framed.hasRemaining()) file.write(framed);
+            }
+            catch (IOException e) {
+                System.out.println("Failed to write task history: " + e.getMessage());
+            }
+        }
+        namesWritten = names.size();
+
+        if (allowCheckpoint && eventsSinceCheckpoint >= Math.max(CHECKPOINT_EVENTS, taskCount)) {
+            checkpoints.add(new Checkpoint(blocks.size() - 1, prevTime, taskCount, encodeBoard()));
+            eventsSinceCheckpoint = 0;
+        }
+        startBlock(prevTime);
+    }
+
+    private void startBlock(long time) {
+        len = 0;
+        blockEvents = 0;
+        baseTime = time;
+        prevTime = time;
+        prevTask = 0;
+        prevActor = -1;
+    }
+
+    private byte[] encodeBoard() {
+        byte[] saved = buf;
+        int savedLen = len;
+
+        buf = new byte[taskCount * 4 + 16];
+        len = 0;
+        for (int t = 0; t < taskCount; t++) {
+            ensureBuf(15);
+            putVarInt(status[t] + 1);
+            putVarInt(assignee[t] + 1);
+            putVarInt(group[t] + 1);
+        }
+        byte[] state = Arrays.copyOf(buf, len);
+
+        buf = saved;
+        len = savedLen;
+        return state;
+    }
+
+    private Checkpoint checkpointAtOrBefore(long time) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        Checkpoint found = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkpoints.get(mid).time <= time) {
+                found = checkpoints.get(mid);
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void ensureTask(int taskId) {
+        if (taskId >= status.length) {
+            int capacity = Math.max(taskId + 1, status.length * 2);
+            status = grow(status, capacity);
+            assignee = grow(assignee, capacity);
+            group = grow(group, capacity);
+            lastBlock = grow(lastBlock, capacity);
+            statusTime = Arrays.copyOf(statusTime, capacity);
+        }
+        taskCount = Math.max(taskCount, taskId + 1);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        int[] grown = Arrays.copyOf(array, capacity);
+        Arrays.fill(grown, array.length, capacity, -1);
+        return grown;
+    }
+
+    private void ensureBuf(int extra) {
+        if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(len + extra, buf.length * 2));
+    }
+
+    private void putVarInt(int v) {
+        while ((v & ~0x7F) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    private void putVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+
+    private static int zigzag(int v) { return (v << 1) ^ (v >> 31); }
+    private static int unzigzag(int v) { return (v >>> 1) ^ -(v & 1); }
+
+    private static int crc(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+}
@@ -0,0 +1,406 @@
+package controller;
+
+import model.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Reads tasks in bulk from a CSV file (with a header naming the columns) or a JSON-lines file
+// (one flat object per line). Columns/keys are title, description, status, assignee (a username),
+// group (a group name), and optionally priority (Urgent/High/Normal/Low) and due (yyyy-MM-dd,
+// with an optional HH:mm). A CSV field in quotes may span lines, as DataExporter writes
+// multi-line descriptions. The file is streamed in chunks; each chunk is parsed and validated
+// in parallel on the common fork-join pool, and bad rows go to a rejects file beside the input.
+// Nothing is applied here: the valid rows are handed to TaskController.importTasks() on the EDT.
+public class TaskImporter {
+
+    private static final int CHUNK_ROWS = 16_384;
+    private static final int MAX_RECORD_LINES = 1_000; // A quoted field still open after this many is a stray quote
+
+    private final Map<String, Employee> employees;  // By username
+    private final Map<String, Group> groups;        // By name
+    private final Map<String, TaskStatus> statuses; // By lower-case name
+    private final TaskStatus defaultStatus;
+
+    // A validated row, ready to become a Task
+    public static class Row {
+        private final String title;
+        private final String description;
+        private final TaskStatus status;
+        private final Employee assignee;
+        private final Group group;
+        private final TaskPriority priority;
+        private final LocalDateTime dueDate;
+
+        Row(String title, String description, TaskStatus status, Employee assignee, Group group,
+            TaskPriority priority, LocalDateTime dueDate) {
+            this.title = title;
+            this.description = description;
+            this.status = status;
+            this.assignee = assignee;
+            this.group = group;
+            this.priority = priority;
+            this.dueDate = dueDate;
+        }
+
+        public String getTitle() { return title; }
+        public String getDescription() { return description; }
+        public TaskStatus getStatus() { return status; }
+        public Employee getAssignee() { return assignee; }
+        public Group getGroup() { return group; }
+        public TaskPriority getPriority() { return priority; }
+        public LocalDateTime getDueDate() { return dueDate; }
+    }
+
+    public static class Result {
+        private final List<Row> rows;
+        private final int rowsRejected;
+        private final Path rejectsFile;
+        private final long elapsedNanos;
+
+        Result(List<Row> rows, int rowsRejected, Path rejectsFile, long elapsedNanos) {
+            this.rows = rows;
+            this.rowsRejected = rowsRejected;
+            this.rejectsFile = rejectsFile;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Valid rows in file order
+        public List<Row> getRows() { return rows; }
+        public int getRowsRejected() { return rowsRejected; }
+        public Path getRejectsFile() { return rejectsFile; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        @Override
+        public String toString() {
+            return "Task import: " + rows.size() + " rows accepted, " + rowsRejected + " rejected, "
+                    + getElapsedMillis() + " ms";
+        }
+    }
+
+    // The lookups are copies, so the import can run off the EDT while the app keeps changing
+    TaskImporter(Map<String, Employee> employees, List<Group> groups, List<TaskStatus> statuses) {
+        this.employees = new HashMap<>(employees);
+        this.groups = new HashMap<>();
+        for (Group g : groups) this.groups.putIfAbsent(g.getName(), g);
+        this.statuses = new HashMap<>();
+        for (TaskStatus s : statuses) this.statuses.putIfAbsent(s.getName().toLowerCase(Locale.ROOT), s);
+        this.defaultStatus = statuses.get(0);
+    }
+
+    public Result read(Path file) throws IOException {
+        long start = System.nanoTime();
+        boolean json = file.getFileName().toString().toLowerCase(Locale.ROOT).matches(".*\\.jsonl?");
+        Path rejectsFile = file.resolveSibling(file.getFileName() + ".rejects");
+
+        List<Row> rows = new ArrayList<>();
+        int rejected = 0;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)) {
+
+            int lineNumber = 0;
+            Map<String, Integer> header = null;
+            if (!json) {
+                String line = in.readLine();
+                lineNumber++;
+                if (line == null) throw new IOException("Empty file");
+                header = parseHeader(line);
+            }
+
+            List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+            int[] firstLines = new int[CHUNK_ROWS]; // Where each record starts, for the rejects file
+            Object[] results = new Object[CHUNK_ROWS];
+            boolean more = true;
+            while (more) {
+                // Read a chunk, then parse it in parallel
+                chunk.clear();
+                String line;
+                while (chunk.size() < CHUNK_ROWS && (line = in.readLine()) != null) {
+                    firstLines[chunk.size()] = ++lineNumber;
+                    if (json || !hasOddQuotes(line)) {
+                        chunk.add(line);
+                        continue;
+                    }
+
+                    // A quoted CSV field left open carries on over the line break. A record still
+                    // open after MAX_RECORD_LINES (or at the end of the file) is rejected whole, so
+                    // a stray quote costs at most that many lines rather than the rest of the file.
+                    StringBuilder record = new StringBuilder(line);
+                    boolean open = true;
+                    int lines = 1;
+                    while (open && lines < MAX_RECORD_LINES && (line = in.readLine()) != null) {
+                        record.append('\n').append(line);
+                        lineNumber++;
+                        lines++;
+                        if (hasOddQuotes(line)) open = false;
+                    }
+                    if (open) results[chunk.size()] = "unclosed quote over " + lines + " lines";
+                    chunk.add(record.toString());
+                }
+                more = chunk.size() == CHUNK_ROWS;
+
+                Map<String, Integer> columns = header;
+                IntStream.range(0, chunk.size()).parallel()
+                        .filter(i -> results[i] == null)
+                        .forEach(i -> results[i] = parseRow(chunk.get(i), columns));
+
+                // Collect in file order; a String result is the reason the row was rejected
+                for (int i = 0; i < chunk.size(); i++) {
+                    Object result = results[i];
+                    if (result instanceof Row) {
+                        rows.add((Row) result);
+                    }
+                    else if (result != null) {
+                        rejects.write("line " + firstLines[i] + ": " + result + ": " + chunk.get(i));
+                        rejects.newLine();
+                        rejected++;
+                    }
+                    results[i] = null;
+                }
+            }
+        }
+
+        if (rejected == 0) Files.deleteIfExists(rejectsFile);
+        return new Result(rows, rejected, rejected == 0 ? null : rejectsFile, System.nanoTime() - start);
+    }
+
+    // Returns a Row, a String reason for rejecting the line, or null for a blank line
+    private Object parseRow(String line, Map<String, Integer> header) {
+        if (line.isBlank()) return null;
+
+        Map<String, String> fields;
+        try {
+            fields = (header == null) ? parseJsonObject(line) : parseCsv(line, header);
+        }
+        catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        String title = trimmed(fields.get("title"));
+        if (title == null) return "missing title";
+
+        TaskStatus status = defaultStatus;
+        String statusName = trimmed(fields.get("status"));
+        if (statusName != null) {
+            status = statuses.get(statusName.toLowerCase(Locale.ROOT));
+            if (status == null) return "unknown status '" + statusName + "'";
+        }
+
+        // An employee, a group, or both for a group task that was handed to one of its members
+        String username = trimmed(fields.get("assignee"));
+        String groupName = trimmed(fields.get("group"));
+        if (username == null && groupName == null) return "no assignee or group";
+
+        Employee assignee = null;
+        Group group = null;
+        if (username != null) {
+            assignee = employees.get(username);
+            if (assignee == null) return "unknown assignee '" + username + "'";
+        }
+        if (groupName != null) {
+            group = groups.get(groupName);
+            if (group == null) return "unknown group '" + groupName + "'";
+        }
+
+        TaskPriority priority = TaskPriority.NORMAL;
+        String priorityName = trimmed(fields.get("priority"));
+        if (priorityName != null) {
+            try {
+                priority = TaskPriority.valueOf(priorityName.toUpperCase(Locale.ROOT));
+            }
+            catch (IllegalArgumentException e) {
+                return "unknown priority '" + priorityName + "'";
+            }
+        }
+
+        LocalDateTime due = null;
+        String dueText = trimmed(fields.get("due"));
+        if (dueText != null) {
+            due = parseDue(dueText);
+            if (due == null) return "bad due date '" + dueText + "'";
+        }
+
+        String description = fields.get("description");
+        return new Row(title, description == null ? "" : description, status, assignee, group, priority, due);
+    }
+
+    // Helper Methods
+
+    private static String trimmed(String s) {
+        if (s == null) return null;
+        s = s.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // yyyy-MM-dd, optionally followed by HH:mm (space or T separated); null if unparseable
+    private static LocalDateTime parseDue(String s) {
+        try {
+            if (s.length() == 10) return LocalDate.parse(s).atStartOfDay();
+            return LocalDateTime.parse(s.replace(' ', 'T'));
+        }
+        catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) throws IOException {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names;
+        try {
+            names = splitCsv(line);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Bad CSV header: " + e.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!header.containsKey("title")) throw new IOException("CSV header has no title column");
+        return header;
+    }
+
+    private static Map<String, String> parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, Integer> column : header.entrySet()) {
+            if (column.getValue() < values.size()) fields.put(column.getKey(), values.get(column.getValue()));
+        }
+        return fields;
+    }
+
+    // Whether the line has an odd number of quotes, which opens a field or closes the one left
+    // open; "" inside a field counts twice, so stays even
+    private static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') odd = !odd;
+        }
+        return odd;
+    }
+
+    // Comma-separated, with optional double quotes around a field and "" for a quote inside one
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') value.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') value.append(line.charAt(++i));
+                else quoted = false;
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else {
+                value.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quote");
+
+        values.add(value.toString());
+        return values;
+    }
+
+    // One flat JSON object whose values are strings, numbers, booleans or null; keys are lower-cased
+    static Map<String, String> parseJsonObject(String line) {
+        Map<String, String> fields = new HashMap<>();
+        int[] at = {skipSpace(line, 0)};
+
+        expect(line, at, '{');
+        if (peek(line, at) == '}') {
+            at[0]++;
+        }
+        else {
+            while (true) {
+                String key = jsonString(line, at);
+                expect(line, at, ':');
+                fields.put(key.toLowerCase(Locale.ROOT), jsonValue(line, at));
+
+                char c = peek(line, at);
+                at[0]++;
+                if (c == '}') break;
+                if (c != ',') throw new IllegalArgumentException("expected , or } at column " + at[0]);
+            }
+        }
+        if (skipSpace(line, at[0]) != line.length()) throw new IllegalArgumentException("trailing characters");
+        return fields;
+    }
+
+    private static String jsonValue(String line, int[] at) {
+        if (peek(line, at) == '"') return jsonString(line, at);
+
+        int start = at[0];
+        while (at[0] < line.length() && ",}] \t".indexOf(line.charAt(at[0])) < 0) at[0]++;
+        String literal = line.substring(start, at[0]);
+        if (literal.isEmpty()) throw new IllegalArgumentException("expected a value at column " + (start + 1));
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String jsonString(String line, int[] at) {
+        expect(line, at, '"');
+        StringBuilder s = new StringBuilder();
+        while (at[0] < line.length()) {
+            char c = line.charAt(at[0]++);
+            if (c == '"') return s.toString();
+            if (c != '\\') {
+                s.append(c);
+                continue;
+            }
+            if (at[0] >= line.length()) break;
+
+            char escaped = line.charAt(at[0]++);
+            switch (escaped) {
+                case 'n': s.append('\n'); break;
+                case 't': s.append('\t'); break;
+                case 'r': s.append('\r'); break;
+                case 'b': s.append('\b'); break;
+                case 'f': s.append('\f'); break;
+                case 'u':
+                    if (at[0] + 4 > line.length()) throw new IllegalArgumentException("bad \\u escape");
+                    s.append((char) Integer.parseInt(line.substring(at[0], at[0] + 4), 16));
+                    at[0] += 4;
+                    break;
+                default: s.append(escaped); // \" \\ \/
+            }
+        }
+        throw new IllegalArgumentException("unterminated string");
+    }
+
+    private static void expect(String line, int[] at, char expected) {
+        if (peek(line, at) != expected) throw new IllegalArgumentException("expected " + expected + " at column " + (at[0] + 1));
+        at[0]++;
+    }
+
+    // Skips whitespace and returns the next character, or 0 at the end of the line
+    private static char peek(String line, int[] at) {
+        at[0] = skipSpace(line, at[0]);
+        return at[0] < line.length() ? line.charAt(at[0]) : 0;
+    }
+
+    private static int skipSpace(String line, int at) {
+        while (at < line.length() && Character.isWhitespace(line.charAt(at))) at++;
+        return at;
+    }
+
+}
@@ -0,0 +1,170 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Keeps each employee's and each group's open tasks in a priority queue, so the next task to work
+// on is found without sorting. Tasks are ordered by priority, then due date (none last), then age.
+// An employee's next task is the best of their own queue's head and the heads of their groups'
+// queues; a group task is queued once for the group rather than once per member, and only until
+// someone owns it.
+//
+// Every change is a sift within one queue (O(log n)), driven by TaskController's listener hooks.
+class TaskScheduler {
+
+    static final Comparator<Task> ORDER = Comparator
+            .comparing(Task::getPriority)
+            .thenComparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Task::getId);
+
+    private final Map<Employee, TaskQueue> byAssignee = new HashMap<>();
+    private final Map<Group, TaskQueue> byGroup = new HashMap<>();
+
+    // A task sits in at most one assignee queue and one group queue, so its slot in each can be
+    // kept in an array by task id instead of a map per queue
+    private final Positions assigneeSlots = new Positions();
+    private final Positions groupSlots = new Positions();
+    private final Predicate<Task> open; // Whether a task still needs doing
+
+    TaskScheduler(Predicate<Task> open) {
+        this.open = open;
+    }
+
+    // Brings the task's queue positions up to date after any change. previousAssignee and
+    // previousGroup are where it was queued before; pass the current values if they did not change.
+    void update(Task t, Employee previousAssignee, Group previousGroup) {
+        if (previousAssignee != null && previousAssignee != t.getAssignee()) remove(byAssignee, previousAssignee, t);
+        if (previousGroup != null && previousGroup != t.getGroup()) remove(byGroup, previousGroup, t);
+
+        boolean wanted = open.test(t);
+        if (t.getAssignee() != null) place(byAssignee, assigneeSlots, t.getAssignee(), t, wanted);
+        if (t.getGroup() != null) place(byGroup, groupSlots, t.getGroup(), t, wanted && t.getAssignee() == null);
+    }
+
+    // The employee's most pressing open task, direct or through a group, or null
+    Task next(Employee e, Collection<Group> groups) {
+        Task best = peek(byAssignee.get(e));
+        for (Group g : groups) {
+            Task candidate = peek(byGroup.get(g));
+            if (candidate != null && (best == null || ORDER.compare(candidate, best) < 0)) best = candidate;
+        }
+        return best;
+    }
+
+    // Helper Methods
+
+    private static <K> void place(Map<K, TaskQueue> queues, Positions slots, K key, Task t, boolean wanted) {
+        if (wanted) queues.computeIfAbsent(key, k -> new TaskQueue(slots)).offer(t);
+        else remove(queues, key, t);
+    }
+
+    private static <K> void remove(Map<K, TaskQueue> queues, K key, Task t) {
+        TaskQueue queue = queues.get(key);
+        if (queue == null) return;
+
+        queue.remove(t);
+        if (queue.isEmpty()) queues.remove(key);
+    }
+
+    private static Task peek(TaskQueue queue) {
+        return queue == null ? null : queue.peek();
+    }
+
+    // Binary min-heap that knows where each task sits, so a task can be moved or removed in place
+    private static class TaskQueue {
+        private final List<Task> heap = new ArrayList<>();
+        private final Positions positions;
+
+        TaskQueue(Positions positions) {
+            this.positions = positions;
+        }
+
+        // Adds the task, or re-sifts it if it is already queued and its order may have changed
+        void offer(Task t) {
+            int at = positions.get(t);
+            if (at < 0) {
+                heap.add(t);
+                positions.put(t, heap.size() - 1);
+                siftUp(heap.size() - 1);
+            }
+            else if (!siftUp(at)) {
+                siftDown(at);
+            }
+        }
+
+        // Only called on the queue the task is in, so its slot is this queue's
+        void remove(Task t) {
+            int at = positions.get(t);
+            if (at < 0 || at >= heap.size() || heap.get(at) != t) return;
+            positions.put(t, -1);
+
+            Task last = heap.remove(heap.size() - 1);
+            if (at < heap.size()) {
+                set(at, last);
+                if (!siftUp(at)) siftDown(at);
+            }
+        }
+
+        Task peek() { return heap.isEmpty() ? null : heap.get(0); }
+        boolean isEmpty() { return heap.isEmpty(); }
+
+        // Returns whether the task moved
+        private boolean siftUp(int at) {
+            int start = at;
+            Task t = heap.get(at);
+            while (at > 0) {
+                int parent = (at - 1) >>> 1;
+                if (ORDER.compare(t, heap.get(parent)) >= 0) break;
+                set(at, heap.get(parent));
+                at = parent;
+            }
+            set(at, t);
+            return at != start;
+        }
+
+        private void siftDown(int at) {
+            Task t = heap.get(at);
+            int half = heap.size() >>> 1;
+            while (at < half) {
+                int child = 2 * at + 1;
+                if (child + 1 < heap.size() && ORDER.compare(heap.get(child + 1), heap.get(child)) < 0) child++;
+                if (ORDER.compare(t, heap.get(child)) <= 0) break;
+                set(at, heap.get(child));
+                at = child;
+            }
+            set(at, t);
+        }
+
+        private void set(int at, Task t) {
+            heap.set(at, t);
+            positions.put(t, at);
+        }
+    }
+
+    // Heap slot by task id, -1 when not queued
+    private static class Positions {
+        private int[] slots = new int[0];
+
+        int get(Task t) {
+            return t.getId() < slots.length ? slots[t.getId()] : -1;
+        }
+
+        void put(Task t, int slot) {
+            if (t.getId() >= slots.length) {
+                int length = slots.length;
+                slots = Arrays.copyOf(slots, Math.max(t.getId() + 1, length * 2));
+                Arrays.fill(slots, length, slots.length, -1);
+            }
+            slots[t.getId()] = slot;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+// Inverted index over task titles and descriptions. Text is split on anything that is not a
+// letter or digit and case-folded. Every query term also matches as a prefix ("nurs" finds
+// "nursing"), a task must match all query terms, and title and whole-word matches rank higher.
+public class TaskSearchIndex {
+
+    private static final int IN_TITLE = 1;
+    private static final int IN_DESCRIPTION = 2;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    // Per-query scratch space, indexed by task id and reused between queries
+    private int[] score = new int[0];
+    private int[] best = new int[0];
+    private int[] matched = new int[0];
+    private int[] stamp = new int[0];
+    private int generation;
+
+    // Task ids for one term, ascending, with where in the task the term appears
+    private static class Postings {
+        private int[] ids = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        private void add(int id, int field) {
+            if (size > 0 && ids[size - 1] == id) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            ids[size] = id;
+            fields[size] = (byte) field;
+            size++;
+        }
+    }
+
+    // Tasks must be added in id order
+    public synchronized void add(int taskId, String title, String description) {
+        Map<String, Integer> fields = new HashMap<>();
+        for (String token : tokenize(title)) fields.merge(token, IN_TITLE, (a, b) -> a | b);
+        for (String token : tokenize(description)) fields.merge(token, IN_DESCRIPTION, (a, b) -> a | b);
+
+        for (Map.Entry<String, Integer> entry : fields.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), k -> new Postings()).add(taskId, entry.getValue());
+        }
+    }
+
+    // Ids of the best matches, highest score first; accept may narrow the candidates (null for all)
+    public synchronized List<Integer> search(String query, int limit, IntPredicate accept) {
+        List<String> tokens = tokenize(query);
+        List<Integer> results = new ArrayList<>();
+        if (tokens.isEmpty() || limit <= 0) return results;
+
+        List<Integer> candidates = new ArrayList<>();
+        List<Integer> firstMatches = new ArrayList<>(); // Every task whose counter gets set
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            int tokenStamp = ++generation;
+            List<Integer> touched = new ArrayList<>();
+
+            // Best score per task for this token across all terms it is a prefix of
+            SortedMap<String, Postings> expansions = terms.subMap(token, token + Character.MAX_VALUE);
+            for (Map.Entry<String, Postings> entry : expansions.entrySet()) {
+                boolean exact = entry.getKey().length() == token.length();
+                Postings postings = entry.getValue();
+                ensureCapacity(postings.ids[postings.size - 1] + 1);
+
+                for (int p = 0; p < postings.size; p++) {
+                    int id = postings.ids[p];
+                    int s = score(postings.fields[p], exact);
+                    if (stamp[id] != tokenStamp) {
+                        stamp[id] = tokenStamp;
+                        best[id] = s;
+                        touched.add(id);
+                    }
+                    else if (s > best[id]) {
+                        best[id] = s;
+                    }
+                }
+            }
+
+            // Keep only tasks that have matched every token so far
+            candidates.clear();
+            for (int id : touched) {
+                if (i == 0) {
+                    matched[id] = 1;
+                    score[id] = best[id];
+                    firstMatches.add(id);
+                }
+                else if (matched[id] == i) {
+                    matched[id] = i + 1;
+                    score[id] += best[id];
+                }
+                else {
+                    continue;
+                }
+                candidates.add(id);
+            }
+            if (candidates.isEmpty()) break;
+        }
+
+        // Top-N by score, newer tasks first on ties
+        PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> score[a] != score[b] ? Integer.compare(score[a], score[b]) : Integer.compare(a, b));
+        for (int id : candidates) {
+            if (accept != null && !accept.test(id)) continue;
+
+            top.add(id);
+            if (top.size() > limit) top.poll();
+        }
+        while (!top.isEmpty()) {
+            results.add(top.poll());
+        }
+        // Reset counters so the next query starts clean
+        for (int id : firstMatches) {
+            matched[id] = 0;
+        }
+
+        Collections.reverse(results);
+        return results;
+    }
+
+    private static int score(int fields, boolean exact) {
+        int s = 0;
+        if ((fields & IN_TITLE) != 0) s = exact ? 6 : 4;
+        else if ((fields & IN_DESCRIPTION) != 0) s = exact ? 3 : 2;
+        return s;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= score.length) return;
+
+        int capacity = Math.max(n, score.length * 2);
+        score = Arrays.copyOf(score, capacity);
+        best = Arrays.copyOf(best, capacity);
+        matched = Arrays.copyOf(matched, capacity);
+        stamp = Arrays.copyOf(stamp, capacity);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            }
+            else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+}
@@ -0,0 +1,671 @@
+package controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Append-only journal of task and group events, plus a periodic snapshot that replaces it.
+//
+// Both files hold frames of [length][seq][records...][crc32c]. Every Batch appended becomes one
+// frame, so its records are recovered all together or not at all. Frames are queued by the caller
+// and written by a flusher thread, which fsyncs once per drained queue: a burst of updates
+// costs one disk flush (group commit). A snapshot is a single frame whose seq is the last journal
+// frame it covers; recovery replays the snapshot, then every later journal frame.
+public class TaskStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x4D545453; // "MTTS"
+    private static final int VERSION = 1;
+
+    private static final byte CREATE_TASK = 1;
+    private static final byte ASSIGN_EMPLOYEE = 2;
+    private static final byte ASSIGN_GROUP = 3;
+    private static final byte SET_STATUS = 4;
+    private static final byte ADD_STATUS = 5;
+    private static final byte CREATE_GROUP = 6;
+    private static final byte JOIN_GROUP = 7;
+    private static final byte SET_SCHEDULE = 8;
+    private static final byte ADD_PREREQUISITE = 9;
+    private static final byte ADD_TEMPLATE = 10;
+    private static final byte TEMPLATE_GENERATED = 11;
+    private static final byte STOP_TEMPLATE = 12;
+    private static final byte SET_DEADLINE = 13;
+    private static final byte ADD_SUBGROUP = 14;
+    private static final byte LEAVE_GROUP = 15;
+    private static final byte SET_GROUP_RULE = 16;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+
+    private final Object lock = new Object();
+    private List<Object> queue = new ArrayList<>(); // Frames and Checkpoints, in order
+    private FileChannel journal;
+    private Thread flusher;
+    private boolean closed;
+    private IOException failure; // Set once a write fails; nothing is appended after it
+
+    private long nextSeq = 1;
+    private long durableSeq;
+    private long recordsSinceSnapshot;
+
+    // Flusher statistics
+    private long framesWritten;
+    private long flushes;
+
+    public TaskStore(Path journalPath, Path snapshotPath) {
+        this.journalPath = journalPath;
+        this.snapshotPath = snapshotPath;
+    }
+
+    // Receives recovered records in their original order
+    public interface Replay {
+        void createTask(int taskId, String title, String description, int status);
+        void assignEmployee(int taskId, String username);
+        void assignGroup(int taskId, int groupId);
+        void setStatus(int taskId, int status);
+        void addStatus(int statusId, String name);
+        void createGroup(int groupId, String name);
+        void joinGroup(int groupId, String username);
+        void setSchedule(int taskId, int priority, long dueSeconds);
+        void addPrerequisite(int taskId, int prerequisiteId);
+        void addTemplate(int templateId, String title, String description, int priority, String username,
+                         int groupId, long startSeconds, int every, String unit);
+        void templateGenerated(int templateId, long occurrenceSeconds);
+        void stopTemplate(int templateId);
+        void setDeadline(int status, int minutes);
+        void addSubgroup(int groupId, int subgroupId);
+        void leaveGroup(int groupId, String username);
+        void setGroupRule(int groupId, String rule);
+    }
+
+    // Records to be written as one frame. Employees are referenced by username; groups and
+    // statuses by their position in GroupController / TaskController, which never shrink.
+    public static class Batch {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int records;
+
+        public Batch createTask(int taskId, String title, String description, int status) {
+            try {
+                out.writeByte(CREATE_TASK);
+                out.writeInt(taskId);
+                writeString(title);
+                writeString(description);
+                out.writeInt(status);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        public Batch assignEmployee(int taskId, String username) { return idAndString(ASSIGN_EMPLOYEE, taskId, username); }
+        public Batch assignGroup(int taskId, int groupId) { return idAndInt(ASSIGN_GROUP, taskId, groupId); }
+        public Batch setStatus(int taskId, int status) { return idAndInt(SET_STATUS, taskId, status); }
+        public Batch addStatus(int statusId, String name) { return idAndString(ADD_STATUS, statusId, name); }
+        public Batch createGroup(int groupId, String name) { return idAndString(CREATE_GROUP, groupId, name); }
+        public Batch joinGroup(int groupId, String username) { return idAndString(JOIN_GROUP, groupId, username); }
+        public Batch leaveGroup(int groupId, String username) { return idAndString(LEAVE_GROUP, groupId, username); }
+        // A dynamic group's rule in GroupRule text form, or empty once it is kept by hand again
+        public Batch setGroupRule(int groupId, String rule) { return idAndString(SET_GROUP_RULE, groupId, rule); }
+        public Batch addPrerequisite(int taskId, int prerequisiteId) { return idAndInt(ADD_PREREQUISITE, taskId, prerequisiteId); }
+
+        // A recurring task: username or groupId (-1) says who gets each occurrence; startSeconds
+        // is the rule's first occurrence as UTC epoch seconds and unit a ChronoUnit name
+        public Batch addTemplate(int templateId, String title, String description, int priority, String username,
+                                 int groupId, long startSeconds, int every, String unit) {
+            try {
+                out.writeByte(ADD_TEMPLATE);
+                out.writeInt(templateId);
+                writeString(title);
+                writeString(description);
+                out.writeInt(priority);
+                writeString(username);
+                out.writeInt(groupId);
+                out.writeLong(startSeconds);
+                out.writeInt(every);
+                writeString(unit);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        // Occurrences up to and including this one have been turned into tasks
+        public Batch templateGenerated(int templateId, long occurrenceSeconds) {
+            try {
+                out.writeByte(TEMPLATE_GENERATED);
+                out.writeInt(templateId);
+                out.writeLong(occurrenceSeconds);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        public Batch stopTemplate(int templateId) {
+            try {
+                out.writeByte(STOP_TEMPLATE);
+                out.writeInt(templateId);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        public Batch addSubgroup(int groupId, int subgroupId) {
+            try {
+                out.writeByte(ADD_SUBGROUP);
+                out.writeInt(groupId);
+                out.writeInt(subgroupId);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        // How long a task may stay in the status before it is escalated; 0 for no limit
+        public Batch setDeadline(int status, int minutes) {
+            try {
+                out.writeByte(SET_DEADLINE);
+                out.writeInt(status);
+                out.writeInt(minutes);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        // dueSeconds is the due date as UTC epoch seconds, or Long.MIN_VALUE for none
+        public Batch setSchedule(int taskId, int priority, long dueSeconds) {
+            try {
+                out.writeByte(SET_SCHEDULE);
+                out.writeInt(taskId);
+                out.writeInt(priority);
+                out.writeLong(dueSeconds);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        public boolean isEmpty() { return records == 0; }
+
+        private Batch idAndString(byte type, int id, String value) {
+            try {
+                out.writeByte(type);
+                out.writeInt(id);
+                writeString(value);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        private Batch idAndInt(byte type, int id, int value) {
+            try {
+                out.writeByte(type);
+                out.writeInt(id);
+                out.writeInt(value);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            records++;
+            return this;
+        }
+
+        // null is written as length -1
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+
+        private ByteBuffer frame(long seq) {
+            byte[] payload = bytes.toByteArray();
+            ByteBuffer frame = ByteBuffer.allocate(4 + 8 + payload.length + 4);
+            frame.putInt(8 + payload.length);
+            frame.putLong(seq);
+            frame.put(payload);
+
+            CRC32C crc = new CRC32C();
+            crc.update(frame.array(), 4, 8 + payload.length);
+            frame.putInt((int) crc.getValue());
+            frame.flip();
+            return frame;
+        }
+    }
+
+    private static class Checkpoint {
+        private final long seq;
+        private final ByteBuffer frame;
+
+        Checkpoint(long seq, ByteBuffer frame) {
+            this.seq = seq;
+            this.frame = frame;
+        }
+    }
+
+    // Replays the snapshot and journal, drops any torn frame at the journal tail, and opens the
+    // journal for appending. Returns the number of records replayed.
+    public long recover(Replay replay) throws IOException {
+        long replayed = 0;
+        long snapshotSeq = 0;
+
+        if (Files.exists(snapshotPath)) {
+            try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < 8 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != VERSION) {
+                    throw new IOException("Unrecognised task snapshot " + snapshotPath);
+                }
+
+                long[] seq = new long[1];
+                long records = readFrame(buffer, seq, replay);
+                if (records < 0) throw new IOException("Corrupt task snapshot " + snapshotPath);
+
+                snapshotSeq = seq[0];
+                replayed += records;
+            }
+        }
+
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = journal.size();
+        long lastSeq = snapshotSeq;
+        long validEnd = 0;
+
+        if (size > 0) {
+            MappedByteBuffer buffer = journal.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long[] seq = new long[1];
+            while (buffer.hasRemaining()) {
+                // Frames already covered by the snapshot are decoded but not applied
+                int start = buffer.position();
+                long records = readFrame(buffer, seq, seqPeek(buffer) > snapshotSeq ? replay : null);
+                if (records < 0) {
+                    buffer.position(start);
+                    break;
+                }
+
+                if (seq[0] > snapshotSeq) {
+                    replayed += records;
+                    recordsSinceSnapshot += records;
+                }
+                lastSeq = Math.max(lastSeq, seq[0]);
+                validEnd = buffer.position();
+            }
+        }
+
+        if (validEnd < size) {
+            System.out.println("Task journal: discarding " + (size - validEnd) + " bytes of incomplete tail");
+            journal.truncate(validEnd);
+            journal.force(true);
+        }
+        journal.position(validEnd);
+
+        synchronized (lock) {
+            nextSeq = lastSeq + 1;
+            durableSeq = lastSeq;
+
+            flusher = new Thread(this::flushLoop, "task-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+
+        return replayed;
+    }
+
+    private long seqPeek(ByteBuffer buffer) {
+        return buffer.remaining() >= 12 ? buffer.getLong(buffer.position() + 4) : -1;
+    }
+
+    // Returns the number of records in the frame, or -1 if it is truncated or corrupt.
+    // Records are only handed to replay once the whole frame has been verified.
+    private long readFrame(ByteBuffer buffer, long[] seq, Replay replay) {
+        if (buffer.remaining() < 4) return -1;
+        int length = buffer.getInt();
+        if (length < 8 || length > buffer.remaining() - 4) return -1;
+
+        int bodyStart = buffer.position();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(bodyStart, length));
+        if ((int) crc.getValue() != buffer.getInt(bodyStart + length)) return -1;
+
+        seq[0] = buffer.getLong();
+        int end = bodyStart + length;
+        long records = 0;
+        try {
+            while (buffer.position() < end) {
+                byte type = buffer.get();
+                int id = buffer.getInt();
+                switch (type) {
+                    case CREATE_TASK: {
+                        String title = readString(buffer);
+                        String description = readString(buffer);
+                        int status = buffer.getInt();
+                        if (replay != null) replay.createTask(id, title, description, status);
+                        break;
+                    }
+                    case ASSIGN_EMPLOYEE: {
+                        String username = readString(buffer);
+                        if (replay != null) replay.assignEmployee(id, username);
+                        break;
+                    }
+                    case ASSIGN_GROUP: {
+                        int group = buffer.getInt();
+                        if (replay != null) replay.assignGroup(id, group);
+                        break;
+                    }
+                    case SET_STATUS: {
+                        int status = buffer.getInt();
+                        if (replay != null) replay.setStatus(id, status);
+                        break;
+                    }
+                    case ADD_STATUS: {
+                        String name = readString(buffer);
+                        if (replay != null) replay.addStatus(id, name);
+                        break;
+                    }
+                    case CREATE_GROUP: {
+                        String name = readString(buffer);
+                        if (replay != null) replay.createGroup(id, name);
+                        break;
+                    }
+                    case JOIN_GROUP: {
+                        String username = readString(buffer);
+                        if (replay != null) replay.joinGroup(id, username);
+                        break;
+                    }
+                    case LEAVE_GROUP: {
+                        String username = readString(buffer);
+                        if (replay != null) replay.leaveGroup(id, username);
+                        break;
+                    }
+                    case SET_GROUP_RULE: {
+                        String rule = readString(buffer);
+                        if (replay != null) replay.setGroupRule(id, rule);
+                        break;
+                    }
+                    case ADD_PREREQUISITE: {
+                        int prerequisite = buffer.getInt();
+                        if (replay != null) replay.addPrerequisite(id, prerequisite);
+                        break;
+                    }
+                    case ADD_TEMPLATE: {
+                        String title = readString(buffer);
+                        String description = readString(buffer);
+                        int priority = buffer.getInt();
+                        String username = readString(buffer);
+                        int group = buffer.getInt();
+                        long start = buffer.getLong();
+                        int every = buffer.getInt();
+                        String unit = readString(buffer);
+                        if (replay != null) replay.addTemplate(id, title, description, priority, username, group, start, every, unit);
+                        break;
+                    }
+                    case TEMPLATE_GENERATED: {
+                        long occurrence = buffer.getLong();
+                        if (replay != null) replay.templateGenerated(id, occurrence);
+                        break;
+                    }
+                    case STOP_TEMPLATE: {
+                        if (replay != null) replay.stopTemplate(id);
+                        break;
+                    }
+                    case ADD_SUBGROUP: {
+                        int subgroup = buffer.getInt();
+                        if (replay != null) replay.addSubgroup(id, subgroup);
+                        break;
+                    }
+                    case SET_DEADLINE: {
+                        int minutes = buffer.getInt();
+                        if (replay != null) replay.setDeadline(id, minutes);
+                        break;
+                    }
+                    case SET_SCHEDULE: {
+                        int priority = buffer.getInt();
+                        long due = buffer.getLong();
+                        if (replay != null) replay.setSchedule(id, priority, due);
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("Unknown record type " + type);
+                }
+                records++;
+            }
+        }
+        catch (RuntimeException e) {
+            // A frame that passed its checksum but does not decode is treated like a torn one
+            System.out.println("Task journal: undecodable frame " + seq[0] + ": " + e.getMessage());
+            return -1;
+        }
+
+        buffer.position(end + 4);
+        return records;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Queues the batch as one frame; it becomes durable on the flusher's next fsync.
+    // Returns false, dropping the batch, until recover() has finished, after close(), or once a
+    // write has failed, since a later frame must never be durable while an earlier one is lost.
+    public boolean append(Batch batch) {
+        if (batch.isEmpty()) return false;
+
+        synchronized (lock) {
+            if (flusher == null || closed || failure != null) return false;
+
+            queue.add(batch.frame(nextSeq++));
+            recordsSinceSnapshot += batch.records;
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    public long getRecordsSinceSnapshot() {
+        synchronized (lock) {
+            return recordsSinceSnapshot;
+        }
+    }
+
+    // Replaces the snapshot with the given state, which must reflect every batch appended so far,
+    // and empties the journal. Must be called from the thread that appends.
+    public void checkpoint(Batch state) {
+        synchronized (lock) {
+            if (flusher == null || closed || failure != null) return;
+
+            long seq = nextSeq - 1;
+            queue.add(new Checkpoint(seq, state.frame(seq)));
+            recordsSinceSnapshot = 0;
+            lock.notifyAll();
+        }
+    }
+
+    // Blocks until everything appended so far is on disk. Throws if a write failed first, since
+    // those records are not durable and never will be.
+    public void sync() throws InterruptedException, IOException {
+        synchronized (lock) {
+            long target = nextSeq - 1;
+            while (durableSeq < target && failure == null && flusher != null && flusher.isAlive()) {
+                lock.wait(100);
+            }
+
+            if (durableSeq >= target) return;
+            if (failure != null) throw new IOException("Task journal write failed: " + failure, failure);
+            throw new IOException("Task journal stopped with " + (target - durableSeq) + " frames unwritten");
+        }
+    }
+
+    // Flushes and closes the journal; throws if anything appended could not be made durable
+    public void close() throws IOException {
+        IOException error = null;
+        try {
+            sync();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+
+        try {
+            if (flusher != null) flusher.join(5000);
+            if (journal != null) journal.close();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            if (error == null) error = e;
+            else error.addSuppressed(e);
+        }
+
+        System.out.println("Task journal closed: " + framesWritten + " frames in " + flushes + " flushes");
+        if (error != null) throw error;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<Object> drained;
+            synchronized (lock) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) return;
+
+                drained = queue;
+                queue = new ArrayList<>();
+            }
+
+            // Each step is only reported durable once it is written and forced; the first
+            // failure stops the flusher, and sync() and close() hand it to their callers
+            try {
+                List<ByteBuffer> frames = new ArrayList<>();
+                for (Object item : drained) {
+                    if (item instanceof Checkpoint) {
+                        writeFrames(frames);
+                        writeSnapshot((Checkpoint) item);
+                        markDurable(((Checkpoint) item).seq);
+                    }
+                    else {
+                        frames.add((ByteBuffer) item);
+                    }
+                }
+                writeFrames(frames);
+            }
+            catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private void markDurable(long seq) {
+        synchronized (lock) {
+            if (seq > durableSeq) durableSeq = seq;
+            lock.notifyAll();
+        }
+    }
+
+    // Writes and forces the frames, then marks them durable. On failure the journal is cut back to
+    // where it was, so a half-written frame never sits in front of anything later.
+    private void writeFrames(List<ByteBuffer> frames) throws IOException {
+        if (frames.isEmpty()) return;
+
+        long goodEnd = journal.position();
+        ByteBuffer[] buffers = frames.toArray(new ByteBuffer[0]);
+        try {
+            long remaining = 0;
+            for (ByteBuffer b : buffers) remaining += b.remaining();
+            while (remaining > 0) {
+                remaining -= journal.write(buffers);
+            }
+            journal.force(false);
+        }
+        catch (IOException e) {
+            try {
+                journal.truncate(goodEnd);
+                journal.position(goodEnd);
+                journal.force(true);
+            }
+            catch (IOException truncateFailed) {
+                e.addSuppressed(truncateFailed);
+            }
+            throw e;
+        }
+
+        framesWritten += buffers.length;
+        flushes++;
+        markDurable(buffers[buffers.length - 1].getLong(4));
+        frames.clear();
+    }
+
+    private void writeSnapshot(Checkpoint checkpoint) throws IOException {
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(SNAPSHOT_MAGIC).putInt(VERSION).flip();
+            ByteBuffer[] buffers = {header, checkpoint.frame};
+            while (header.hasRemaining() || checkpoint.frame.hasRemaining()) {
+                out.write(buffers);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Everything in the journal is now covered by the snapshot
+        journal.truncate(0);
+        journal.position(0);
+        journal.force(true);
+    }
+
+}
@@ -0,0 +1,159 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Hierarchical timing wheel over whole-minute ticks. Four levels of 64 slots cover about an hour,
+// two days, six months and thirty years ahead; anything further sits in the last slot and is
+// re-filed as time catches up. Scheduling is O(1), and advancing one tick touches only the slot
+// that comes due (plus, once every 64 ticks, the entries cascading down from the next level), so
+// the cost of time passing does not depend on how many timers are waiting.
+//
+// An id has at most one pending timer. The wheel keeps the slot and position of each, so
+// rescheduling or cancelling one is a swap-remove from its slot: O(1), with no stale entries left
+// behind to fire later.
+class TimerWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final Slot overdue = new Slot(); // Scheduled at or before now; fire on the next advance
+    private long now;
+    private int size;
+
+    // By id: the slot holding its pending timer (null when none) and where in that slot it sits
+    private Slot[] slotOf = new Slot[0];
+    private int[] indexOf = new int[0];
+
+    TimerWheel(long now) {
+        this.now = now;
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) wheel[i] = new Slot();
+        }
+    }
+
+    // Sets the id's timer, replacing any it already had
+    void schedule(long due, int id) {
+        cancel(id);
+        size++;
+        place(due, id);
+    }
+
+    // Returns whether the id had a pending timer
+    boolean cancel(int id) {
+        Slot slot = id < slotOf.length ? slotOf[id] : null;
+        if (slot == null) return false;
+
+        int at = indexOf[id];
+        int last = --slot.size;
+        if (at < last) {
+            slot.due[at] = slot.due[last];
+            slot.ids[at] = slot.ids[last];
+            indexOf[slot.ids[at]] = at;
+        }
+        slotOf[id] = null;
+        size--;
+        return true;
+    }
+
+    boolean isPending(int id) {
+        return id < slotOf.length && slotOf[id] != null;
+    }
+
+    // Moves time forward to the given tick, passing every timer that came due to fire
+    void advance(long to, IntConsumer fire) {
+        drain(overdue, fire);
+        while (now < to) {
+            now++;
+
+            // Highest level first, so entries cascading down can cascade again in the same tick
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+                    Slot slot = wheels[level][(int) (now >>> (BITS * level)) & MASK];
+                    long[] due = Arrays.copyOf(slot.due, slot.size);
+                    int[] ids = Arrays.copyOf(slot.ids, slot.size);
+                    slot.clear();
+                    for (int i = 0; i < due.length; i++) place(due[i], ids[i]);
+                }
+            }
+
+            drain(overdue, fire);
+            drain(wheels[0][(int) now & MASK], fire);
+        }
+    }
+
+    int size() { return size; }
+    long getNow() { return now; }
+
+    // Helper Methods
+
+    private void place(long due, int id) {
+        long delta = due - now;
+        if (delta <= 0) {
+            put(overdue, due, id);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                put(wheels[level][(int) (due >>> (BITS * level)) & MASK], due, id);
+                return;
+            }
+        }
+
+        // Beyond the top level's reach: park it in the slot furthest out and re-file it from there
+        long farthest = (now >>> (BITS * (LEVELS - 1))) + MASK;
+        put(wheels[LEVELS - 1][(int) farthest & MASK], due, id);
+    }
+
+    private void put(Slot slot, long due, int id) {
+        if (id >= slotOf.length) {
+            int capacity = Math.max(id + 1, slotOf.length * 2);
+            slotOf = Arrays.copyOf(slotOf, capacity);
+            indexOf = Arrays.copyOf(indexOf, capacity);
+        }
+        slotOf[id] = slot;
+        indexOf[id] = slot.size;
+        slot.add(due, id);
+    }
+
+    private void drain(Slot slot, IntConsumer fire) {
+        if (slot.size == 0) return;
+
+        // Fired timers are gone before any callback runs, so a callback may set a new one
+        int[] ids = Arrays.copyOf(slot.ids, slot.size);
+        size -= ids.length;
+        slot.clear();
+        for (int id : ids) slotOf[id] = null;
+        for (int id : ids) fire.accept(id);
+    }
+
+    private static class Slot {
+        private long[] due = new long[0];
+        private int[] ids = new int[0];
+        private int size;
+
+        void add(long at, int id) {
+            if (size == ids.length) {
+                due = Arrays.copyOf(due, Math.max(4, size * 2));
+                ids = Arrays.copyOf(ids, due.length);
+            }
+            due[size] = at;
+            ids[size] = id;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            if (ids.length > 64) {
+                // Let a slot that once held a burst shrink back
+                due = new long[0];
+                ids = new int[0];
+            }
+        }
+    }
+
+}
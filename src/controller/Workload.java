@@ -0,0 +1,67 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running count of each employee's open, directly assigned tasks, plus the same weighted by
+// priority. Kept current from TaskController's listener hooks: each task remembers whom it was
+// last charged to and at what weight, so a change only moves that task's share (O(1)) and nothing
+// is ever recounted from the task list.
+class Workload {
+
+    private final Map<Employee, long[]> loads = new HashMap<>(); // {open tasks, weighted load}
+
+    // By task id: who the task is charged to and its weight then (0 when not charged)
+    private final List<Employee> chargedTo = new ArrayList<>();
+    private int[] chargedWeight = new int[1024];
+
+    // An Urgent task counts as much as four Low ones when balancing by weight
+    static int weight(TaskPriority priority) {
+        switch (priority) {
+            case URGENT: return 4;
+            case HIGH: return 3;
+            case NORMAL: return 2;
+            default: return 1;
+        }
+    }
+
+    // Re-charges the task after any change to its assignee, status or priority
+    void update(Task t, boolean open) {
+        int id = t.getId();
+        while (chargedTo.size() <= id) chargedTo.add(null);
+        if (id >= chargedWeight.length) chargedWeight = Arrays.copyOf(chargedWeight, Math.max(id + 1, chargedWeight.length * 2));
+
+        Employee previous = chargedTo.get(id);
+        if (previous != null) add(previous, -1, -chargedWeight[id]);
+
+        Employee now = open ? t.getAssignee() : null;
+        int w = now == null ? 0 : weight(t.getPriority());
+        if (now != null) add(now, 1, w);
+
+        chargedTo.set(id, now);
+        chargedWeight[id] = w;
+    }
+
+    long get(Employee e, boolean weighted) {
+        long[] load = loads.get(e);
+        return load == null ? 0 : load[weighted ? 1 : 0];
+    }
+
+    // The load the task adds to whoever is charged with it
+    static int cost(Task t, boolean weighted) {
+        return weighted ? weight(t.getPriority()) : 1;
+    }
+
+    private void add(Employee e, int count, int w) {
+        long[] load = loads.computeIfAbsent(e, k -> new long[2]);
+        load[0] += count;
+        load[1] += w;
+        if (load[0] == 0) loads.remove(e);
+    }
+
+}
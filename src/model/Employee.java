@@ -18,6 +18,8 @@ public class Employee implements Comparable<Employee> {
     private String department;
     private String role;
 
+    private int rosterIndex = -1; // Dense index assigned by EmployeeController, never reused
+
     @Override
     public int compareTo(Employee employee) {
         return this.username.compareTo(employee.username);
@@ -55,6 +57,44 @@ public class Employee implements Comparable<Employee> {
     public String getDepartment() { return department; }
     public String getRole() { return role; }
 
+    public int getRosterIndex() { return rosterIndex; }
+    public void setRosterIndex(int rosterIndex) { this.rosterIndex = rosterIndex; }
+
+    // True if every field matches, so a reloaded row can be recognised as unchanged
+    public boolean sameDetails(Employee other) {
+        return username.equals(other.username)
+                && password.equals(other.password)
+                && id == other.id
+                && firstName.equals(other.firstName)
+                && lastName.equals(other.lastName)
+                && streetAddress.equals(other.streetAddress)
+                && city.equals(other.city)
+                && state.equals(other.state)
+                && country.equals(other.country)
+                && Double.compare(salary, other.salary) == 0
+                && hireDate.equals(other.hireDate)
+                && birthDate.equals(other.birthDate)
+                && department.equals(other.department)
+                && role.equals(other.role);
+    }
+
+    // Copies a reloaded row into this instance, so Tasks and Groups holding it see the new details
+    public void updateFrom(Employee other) {
+        this.password = other.password;
+        this.id = other.id;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.streetAddress = other.streetAddress;
+        this.city = other.city;
+        this.state = other.state;
+        this.country = other.country;
+        this.salary = other.salary;
+        this.hireDate = other.hireDate;
+        this.birthDate = other.birthDate;
+        this.department = other.department;
+        this.role = other.role;
+    }
+
     @Override
     public String toString() {
         return firstName + " " + lastName + " - " + department;
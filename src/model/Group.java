@@ -1,26 +1,111 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Group {
+    private int id;
     private String name;
+
+    // Membership is keyed on Employee.getRosterIndex(); the list keeps join order for display.
+    // Removals only clear the id, and the list drops departed members the next time it is read.
+    private IdSet memberIds = new IdSet();
+    private IdSet listedIds = new IdSet(); // Everyone in members, including departed ones not yet dropped
     private List<Employee> members = new ArrayList<>();
+    private boolean departed;
+
+    // Groups whose members also count as members of this one
+    private List<Group> subgroups = new ArrayList<>();
+
+    // Membership of a dynamic group follows its rule; null for groups kept by hand
+    private GroupRule rule;
+
+    private GroupListener listener;
 
-    public Group(String name) {
+    public Group(int id, String name) {
+        this.id = id;
         this.name = name;
     }
 
+    public int getId() {
+        return id;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {}
 
-    public void addEmployee(Employee e) { members.add(e); }
+    public void setListener(GroupListener listener) { this.listener = listener; }
+
+    // Returns false if the employee is already a member
+    public boolean addEmployee(Employee e) {
+        if (e.getRosterIndex() < 0) {
+            throw new IllegalArgumentException(e.getUsername() + " is not on the roster");
+        }
+        if (!memberIds.add(e.getRosterIndex())) return false;
+
+        if (listedIds.add(e.getRosterIndex())) members.add(e);
+        if (listener != null) listener.memberAdded(this, e);
+        return true;
+    }
+
+    // Returns false if the employee is not a member
+    public boolean removeEmployee(Employee e) {
+        if (!memberIds.remove(e.getRosterIndex())) return false;
+
+        departed = true;
+        if (listener != null) listener.memberRemoved(this, e);
+        return true;
+    }
+
+    // Membership is left as it is; GroupController brings it in line with the new rule
+    public void setRule(GroupRule rule) {
+        this.rule = rule;
+        if (listener != null) listener.ruleChanged(this);
+    }
+
+    // Returns false if it is already a subgroup. Nests without checking for cycles; add subgroups
+    // through GroupController.addSubgroup(), which refuses them.
+    public boolean addSubgroup(Group g) {
+        if (subgroups.contains(g)) return false;
+
+        subgroups.add(g);
+        if (listener != null) listener.subgroupAdded(this, g);
+        return true;
+    }
+
+    // Direct members only; GroupController resolves nested membership
+    public boolean contains(Employee e) {
+        return memberIds.contains(e.getRosterIndex());
+    }
+
+    // Roster indexes of employees in either group
+    public IdSet union(Group other) {
+        return memberIds.or(other.memberIds);
+    }
+
+    // Roster indexes of employees in both groups
+    public IdSet intersection(Group other) {
+        return memberIds.and(other.memberIds);
+    }
 
     @Override
     public String toString() { return name; }
 
-    public List<Employee> getMembers() { return members; }
+    public GroupRule getRule() { return rule; }
+    public boolean isDynamic() { return rule != null; }
+
+    public List<Employee> getMembers() {
+        if (departed) {
+            members.removeIf(e -> !memberIds.contains(e.getRosterIndex()));
+            listedIds = memberIds.copy();
+            departed = false;
+        }
+        return Collections.unmodifiableList(members);
+    }
+
+    public List<Group> getSubgroups() { return Collections.unmodifiableList(subgroups); }
 }
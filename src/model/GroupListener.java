@@ -0,0 +1,10 @@
+package model;
+
+// Notified when groups are created, gain or lose members, gain subgroups or get a new rule
+public interface GroupListener {
+    void groupCreated(Group group);
+    void memberAdded(Group group, Employee member);
+    void memberRemoved(Group group, Employee member);
+    void subgroupAdded(Group group, Group subgroup);
+    void ruleChanged(Group group);
+}
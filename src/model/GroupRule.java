@@ -0,0 +1,145 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// Membership of a dynamic group, as conditions on employee fields that must all hold, e.g.
+// "department=Pharmacy" or "role=Manager; state=OH; hired=2020-01-01..". Text fields match one
+// value, ignoring case; the hire date matches an inclusive range with either end left open.
+public class GroupRule {
+
+    public enum Attribute {
+        DEPARTMENT("department"),
+        ROLE("role"),
+        CITY("city"),
+        STATE("state"),
+        COUNTRY("country");
+
+        private final String key;
+
+        Attribute(String key) { this.key = key; }
+
+        public String getKey() { return key; }
+
+        // The employee's value in the form rules compare against
+        public String valueOf(Employee e) {
+            switch (this) {
+                case DEPARTMENT: return normalise(e.getDepartment());
+                case ROLE: return normalise(e.getRole());
+                case CITY: return normalise(e.getCity());
+                case STATE: return normalise(e.getState());
+                default: return normalise(e.getCountry());
+            }
+        }
+    }
+
+    private static final String HIRED = "hired";
+
+    private final Map<Attribute, String> values; // Normalised
+    private final String hiredFrom;               // ISO date or null
+    private final String hiredTo;                 // ISO date or null
+
+    public GroupRule(Map<Attribute, String> values, String hiredFrom, String hiredTo) {
+        EnumMap<Attribute, String> normalised = new EnumMap<>(Attribute.class);
+        values.forEach((attribute, value) -> normalised.put(attribute, normalise(value)));
+        if (normalised.isEmpty() && hiredFrom == null && hiredTo == null) {
+            throw new IllegalArgumentException("A rule needs at least one condition");
+        }
+
+        this.values = Collections.unmodifiableMap(normalised);
+        this.hiredFrom = checkDate(hiredFrom);
+        this.hiredTo = checkDate(hiredTo);
+        if (this.hiredFrom != null && this.hiredTo != null && this.hiredFrom.compareTo(this.hiredTo) > 0) {
+            throw new IllegalArgumentException("Hire date range ends before it starts");
+        }
+    }
+
+    // Reads the form toString() writes: "field=value" conditions separated by semicolons, with
+    // "hired=FROM..TO" (either end optional) or "hired=DATE" for the hire date
+    public static GroupRule parse(String text) {
+        EnumMap<Attribute, String> values = new EnumMap<>(Attribute.class);
+        String from = null;
+        String to = null;
+
+        for (String condition : text.split(";")) {
+            if (condition.trim().isEmpty()) continue;
+
+            int eq = condition.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected field=value, got \"" + condition.trim() + "\"");
+            String key = condition.substring(0, eq).trim().toLowerCase();
+            String value = condition.substring(eq + 1).trim();
+            if (value.isEmpty()) throw new IllegalArgumentException("No value for " + key);
+
+            if (key.equals(HIRED)) {
+                int range = value.indexOf("..");
+                from = range < 0 ? value : emptyToNull(value.substring(0, range).trim());
+                to = range < 0 ? value : emptyToNull(value.substring(range + 2).trim());
+                continue;
+            }
+
+            Attribute attribute = null;
+            for (Attribute a : Attribute.values()) {
+                if (a.getKey().equals(key)) attribute = a;
+            }
+            if (attribute == null) throw new IllegalArgumentException("Unknown field " + key);
+            values.put(attribute, value);
+        }
+        return new GroupRule(values, from, to);
+    }
+
+    public boolean matches(Employee e) {
+        for (Map.Entry<Attribute, String> condition : values.entrySet()) {
+            if (!condition.getKey().valueOf(e).equals(condition.getValue())) return false;
+        }
+        return matchesHireDate(e);
+    }
+
+    // Only the hire date part; true when the rule has none
+    public boolean matchesHireDate(Employee e) {
+        if (hiredFrom == null && hiredTo == null) return true;
+
+        // ISO dates order as strings; anything else, such as "N/A", never matches
+        String hired = e.getHireDate();
+        if (hired == null || hired.length() != 10 || hired.charAt(4) != '-' || hired.charAt(7) != '-') return false;
+        return (hiredFrom == null || hired.compareTo(hiredFrom) >= 0) && (hiredTo == null || hired.compareTo(hiredTo) <= 0);
+    }
+
+    public Map<Attribute, String> getValues() { return values; }
+    public String getHiredFrom() { return hiredFrom; }
+    public String getHiredTo() { return hiredTo; }
+
+    @Override
+    public String toString() {
+        StringJoiner text = new StringJoiner("; ");
+        values.forEach((attribute, value) -> text.add(attribute.getKey() + "=" + value));
+        if (hiredFrom != null || hiredTo != null) {
+            text.add(HIRED + "=" + (hiredFrom != null && hiredFrom.equals(hiredTo) ? hiredFrom
+                    : (hiredFrom == null ? "" : hiredFrom) + ".." + (hiredTo == null ? "" : hiredTo)));
+        }
+        return text.toString();
+    }
+
+    // Helper Methods
+
+    private static String normalise(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String checkDate(String date) {
+        if (date == null) return null;
+        try {
+            return LocalDate.parse(date).toString();
+        }
+        catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Hire date must be YYYY-MM-DD, got \"" + date + "\"");
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Compact set of non-negative ints, laid out like a roaring bitmap: values are bucketed by their
+// high 16 bits, and each bucket is a sorted char array while sparse and a 65536-bit bitmap once
+// it holds more than ARRAY_MAX values. Membership is a binary search over the bucket keys plus
+// either a bit test or a short binary search; union and intersection work bucket by bucket.
+public class IdSet {
+
+    private static final int ARRAY_MAX = 4096; // Past this a bitmap (8 KB) is smaller than the array
+
+    private int[] keys = new int[4];         // High 16 bits, sorted
+    private Object[] buckets = new Object[4]; // char[] or long[1024], parallel to keys
+    private int[] counts = new int[4];        // Values per bucket
+    private int bucketCount;
+    private int size;
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean contains(int value) {
+        if (value < 0) return false;
+
+        int b = Arrays.binarySearch(keys, 0, bucketCount, value >>> 16);
+        if (b < 0) return false;
+
+        char low = (char) value;
+        Object bucket = buckets[b];
+        if (bucket instanceof long[]) {
+            return (((long[]) bucket)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) bucket, 0, counts[b], low) >= 0;
+    }
+
+    // Returns false if the value was already present
+    public boolean add(int value) {
+        if (value < 0) throw new IllegalArgumentException("Negative id " + value);
+
+        int key = value >>> 16;
+        int b = Arrays.binarySearch(keys, 0, bucketCount, key);
+        if (b < 0) {
+            b = -b - 1;
+            insertBucket(b, key, new char[4], 0);
+        }
+
+        char low = (char) value;
+        Object bucket = buckets[b];
+        if (bucket instanceof long[]) {
+            long[] bits = (long[]) bucket;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) != 0) return false;
+            bits[low >>> 6] |= mask;
+        }
+        else {
+            char[] array = (char[]) bucket;
+            int count = counts[b];
+            int at = Arrays.binarySearch(array, 0, count, low);
+            if (at >= 0) return false;
+            at = -at - 1;
+
+            if (count == ARRAY_MAX) {
+                long[] bits = toBitmap(array, count);
+                bits[low >>> 6] |= 1L << low;
+                buckets[b] = bits;
+            }
+            else {
+                if (count == array.length) {
+                    array = Arrays.copyOf(array, Math.min(ARRAY_MAX, count * 2));
+                    buckets[b] = array;
+                }
+                System.arraycopy(array, at, array, at + 1, count - at);
+                array[at] = low;
+            }
+        }
+
+        counts[b]++;
+        size++;
+        return true;
+    }
+
+    // Returns false if the value was not present
+    public boolean remove(int value) {
+        if (value < 0) return false;
+
+        int b = Arrays.binarySearch(keys, 0, bucketCount, value >>> 16);
+        if (b < 0) return false;
+
+        char low = (char) value;
+        Object bucket = buckets[b];
+        if (bucket instanceof long[]) {
+            long[] bits = (long[]) bucket;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) return false;
+            bits[low >>> 6] &= ~mask;
+
+            if (counts[b] - 1 == ARRAY_MAX) {
+                buckets[b] = toArray(bits, ARRAY_MAX);
+            }
+        }
+        else {
+            char[] array = (char[]) bucket;
+            int at = Arrays.binarySearch(array, 0, counts[b], low);
+            if (at < 0) return false;
+            System.arraycopy(array, at + 1, array, at, counts[b] - at - 1);
+        }
+
+        size--;
+        if (--counts[b] == 0) removeBucket(b);
+        return true;
+    }
+
+    // Values in ascending order
+    public void forEach(IntConsumer action) {
+        for (int b = 0; b < bucketCount; b++) {
+            int high = keys[b] << 16;
+            Object bucket = buckets[b];
+            if (bucket instanceof long[]) {
+                long[] bits = (long[]) bucket;
+                for (int w = 0; w < bits.length; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+            else {
+                char[] array = (char[]) bucket;
+                for (int i = 0; i < counts[b]; i++) {
+                    action.accept(high | array[i]);
+                }
+            }
+        }
+    }
+
+    // Values in ascending order until action returns false; returns false if it stopped early
+    public boolean forEachWhile(IntPredicate action) {
+        for (int b = 0; b < bucketCount; b++) {
+            int high = keys[b] << 16;
+            Object bucket = buckets[b];
+            if (bucket instanceof long[]) {
+                long[] bits = (long[]) bucket;
+                for (int w = 0; w < bits.length; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        if (!action.test(high | (w << 6) | Long.numberOfTrailingZeros(word))) return false;
+                        word &= word - 1;
+                    }
+                }
+            }
+            else {
+                char[] array = (char[]) bucket;
+                for (int i = 0; i < counts[b]; i++) {
+                    if (!action.test(high | array[i])) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public IdSet copy() {
+        IdSet copy = new IdSet();
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.counts = Arrays.copyOf(counts, counts.length);
+        copy.buckets = new Object[buckets.length];
+        for (int b = 0; b < bucketCount; b++) {
+            Object bucket = buckets[b];
+            copy.buckets[b] = (bucket instanceof long[]) ? ((long[]) bucket).clone() : ((char[]) bucket).clone();
+        }
+        copy.bucketCount = bucketCount;
+        copy.size = size;
+        return copy;
+    }
+
+    public IdSet and(IdSet other) {
+        IdSet result = new IdSet();
+        int i = 0;
+        int j = 0;
+        while (i < bucketCount && j < other.bucketCount) {
+            if (keys[i] < other.keys[j]) { i++; continue; }
+            if (keys[i] > other.keys[j]) { j++; continue; }
+
+            Object a = buckets[i];
+            Object b = other.buckets[j];
+            if (a instanceof long[] && b instanceof long[]) {
+                long[] bits = ((long[]) a).clone();
+                long[] otherBits = (long[]) b;
+                int count = 0;
+                for (int w = 0; w < bits.length; w++) {
+                    bits[w] &= otherBits[w];
+                    count += Long.bitCount(bits[w]);
+                }
+                result.appendBucket(keys[i], bits, count);
+            }
+            else if (a instanceof long[] || b instanceof long[]) {
+                // Filter the array side through the bitmap side
+                char[] array = (char[]) (a instanceof long[] ? b : a);
+                int arrayCount = a instanceof long[] ? other.counts[j] : counts[i];
+                long[] bits = (long[]) (a instanceof long[] ? a : b);
+                char[] out = new char[arrayCount];
+                int count = 0;
+                for (int k = 0; k < arrayCount; k++) {
+                    char low = array[k];
+                    if ((bits[low >>> 6] & (1L << low)) != 0) out[count++] = low;
+                }
+                result.appendBucket(keys[i], out, count);
+            }
+            else {
+                char[] x = (char[]) a;
+                char[] y = (char[]) b;
+                char[] out = new char[Math.min(counts[i], other.counts[j])];
+                int count = 0;
+                int p = 0;
+                int q = 0;
+                while (p < counts[i] && q < other.counts[j]) {
+                    if (x[p] < y[q]) p++;
+                    else if (x[p] > y[q]) q++;
+                    else {
+                        out[count++] = x[p];
+                        p++;
+                        q++;
+                    }
+                }
+                result.appendBucket(keys[i], out, count);
+            }
+            i++;
+            j++;
+        }
+        return result;
+    }
+
+    // Adds every value of other to this set in place; costs one insert per value of other's sparse
+    // buckets, so folding a small set into a large one doesn't touch the large one's bitmaps.
+    // Returns false if nothing was added.
+    public boolean addAll(IdSet other) {
+        int before = size;
+        for (int j = 0; j < other.bucketCount; j++) {
+            int high = other.keys[j] << 16;
+            Object bucket = other.buckets[j];
+            if (bucket instanceof char[]) {
+                char[] array = (char[]) bucket;
+                for (int k = 0; k < other.counts[j]; k++) add(high | array[k]);
+                continue;
+            }
+
+            int b = Arrays.binarySearch(keys, 0, bucketCount, other.keys[j]);
+            if (b < 0) {
+                insertBucket(-b - 1, other.keys[j], ((long[]) bucket).clone(), other.counts[j]);
+                size += other.counts[j];
+                continue;
+            }
+            long[] bits = (buckets[b] instanceof long[]) ? (long[]) buckets[b] : toBitmap((char[]) buckets[b], counts[b]);
+            long[] otherBits = (long[]) bucket;
+            int count = 0;
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] |= otherBits[w];
+                count += Long.bitCount(bits[w]);
+            }
+            buckets[b] = bits;
+            size += count - counts[b];
+            counts[b] = count;
+        }
+        return size != before;
+    }
+
+    public IdSet or(IdSet other) {
+        IdSet result = new IdSet();
+        int i = 0;
+        int j = 0;
+        while (i < bucketCount || j < other.bucketCount) {
+            if (j >= other.bucketCount || (i < bucketCount && keys[i] < other.keys[j])) {
+                result.appendBucket(keys[i], copyOf(buckets[i]), counts[i]);
+                i++;
+                continue;
+            }
+            if (i >= bucketCount || keys[i] > other.keys[j]) {
+                result.appendBucket(other.keys[j], copyOf(other.buckets[j]), other.counts[j]);
+                j++;
+                continue;
+            }
+
+            Object a = buckets[i];
+            Object b = other.buckets[j];
+            if (a instanceof char[] && b instanceof char[] && counts[i] + other.counts[j] <= ARRAY_MAX) {
+                char[] x = (char[]) a;
+                char[] y = (char[]) b;
+                char[] out = new char[counts[i] + other.counts[j]];
+                int count = 0;
+                int p = 0;
+                int q = 0;
+                while (p < counts[i] || q < other.counts[j]) {
+                    if (q >= other.counts[j] || (p < counts[i] && x[p] < y[q])) out[count++] = x[p++];
+                    else if (p >= counts[i] || x[p] > y[q]) out[count++] = y[q++];
+                    else {
+                        out[count++] = x[p];
+                        p++;
+                        q++;
+                    }
+                }
+                result.appendBucket(keys[i], out, count);
+            }
+            else {
+                long[] bits = (a instanceof long[]) ? ((long[]) a).clone() : toBitmap((char[]) a, counts[i]);
+                if (b instanceof long[]) {
+                    long[] otherBits = (long[]) b;
+                    for (int w = 0; w < bits.length; w++) bits[w] |= otherBits[w];
+                }
+                else {
+                    char[] array = (char[]) b;
+                    for (int k = 0; k < other.counts[j]; k++) bits[array[k] >>> 6] |= 1L << array[k];
+                }
+                int count = 0;
+                for (long word : bits) count += Long.bitCount(word);
+                result.appendBucket(keys[i], bits, count);
+            }
+            i++;
+            j++;
+        }
+        return result;
+    }
+
+    // Helper Methods
+
+    // Appends a bucket whose key is greater than every existing key, normalising its layout
+    private void appendBucket(int key, Object bucket, int count) {
+        if (count == 0) return;
+
+        if (bucket instanceof long[] && count <= ARRAY_MAX) {
+            bucket = toArray((long[]) bucket, count);
+        }
+        else if (bucket instanceof char[] && count > ARRAY_MAX) {
+            bucket = toBitmap((char[]) bucket, count);
+        }
+        insertBucket(bucketCount, key, bucket, count);
+        size += count;
+    }
+
+    private void insertBucket(int at, int key, Object bucket, int count) {
+        if (bucketCount == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(keys, at, keys, at + 1, bucketCount - at);
+        System.arraycopy(buckets, at, buckets, at + 1, bucketCount - at);
+        System.arraycopy(counts, at, counts, at + 1, bucketCount - at);
+        keys[at] = key;
+        buckets[at] = bucket;
+        counts[at] = count;
+        bucketCount++;
+    }
+
+    private void removeBucket(int at) {
+        System.arraycopy(keys, at + 1, keys, at, bucketCount - at - 1);
+        System.arraycopy(buckets, at + 1, buckets, at, bucketCount - at - 1);
+        System.arraycopy(counts, at + 1, counts, at, bucketCount - at - 1);
+        bucketCount--;
+        buckets[bucketCount] = null;
+    }
+
+    private static Object copyOf(Object bucket) {
+        return (bucket instanceof long[]) ? ((long[]) bucket).clone() : ((char[]) bucket).clone();
+    }
+
+    private static long[] toBitmap(char[] array, int count) {
+        long[] bits = new long[1024];
+        for (int i = 0; i < count; i++) {
+            bits[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int count) {
+        char[] array = new char[Math.max(count, 1)];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+}
@@ -0,0 +1,46 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// "Every N minutes/hours/days/weeks, starting at a given time", e.g. vitals every 4 hours from
+// 06:00 or a pharmacy count every day at 21:00. Times are wall-clock local date-times.
+public class RecurrenceRule {
+    private final LocalDateTime start;
+    private final int every;
+    private final ChronoUnit unit;
+
+    public RecurrenceRule(LocalDateTime start, int every, ChronoUnit unit) {
+        if (every < 1) throw new IllegalArgumentException("Repeat interval must be at least 1");
+        if (unit != ChronoUnit.MINUTES && unit != ChronoUnit.HOURS && unit != ChronoUnit.DAYS && unit != ChronoUnit.WEEKS) {
+            throw new IllegalArgumentException("Repeat unit must be minutes, hours, days or weeks");
+        }
+        this.start = start.truncatedTo(ChronoUnit.MINUTES);
+        this.every = every;
+        this.unit = unit;
+    }
+
+    // The first occurrence strictly after the given time
+    public LocalDateTime nextAfter(LocalDateTime t) {
+        if (t.isBefore(start)) return start;
+
+        long step = getStepMinutes();
+        long elapsed = ChronoUnit.MINUTES.between(start, t);
+        return start.plusMinutes((elapsed / step + 1) * step);
+    }
+
+    public long getStepMinutes() {
+        return unit.getDuration().toMinutes() * every;
+    }
+
+    public LocalDateTime getStart() { return start; }
+    public int getEvery() { return every; }
+    public ChronoUnit getUnit() { return unit; }
+
+    @Override
+    public String toString() {
+        String name = unit.toString().toLowerCase();
+        return "every " + (every == 1 ? name.substring(0, name.length() - 1) : every + " " + name)
+                + " from " + start.toString().replace('T', ' ');
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+// Notified after an employee joins, leaves or is updated in place on the live roster
+public interface RosterListener {
+    void employeeAdded(Employee e);
+    void employeeChanged(Employee e);
+    void employeeRemoved(Employee e);
+}
@@ -1,22 +1,58 @@
 package model;
 
+import java.time.LocalDateTime;
+
 public class Task {
+    private int id;
     private String title;
     private String description;
     private Employee assignee;
     private Group group;
     private TaskStatus status;
+    private TaskPriority priority = TaskPriority.NORMAL;
+    private LocalDateTime dueDate; // null when there is no deadline
+
+    private TaskListener listener;
 
     public Task(String title, String description, TaskStatus status) {
+        this(-1, title, description, status);
+    }
+
+    public Task(int id, String title, String description, TaskStatus status) {
+        this.id = id;
         this.title = title;
         this.description = description;
         this.status = status;
     }
 
-    public void assignEmployee(Employee e) { this.assignee = e; }
-    public void assignGroup(Group g) { this.group = g; }
-    public void setStatus(TaskStatus status) { this.status = status; }
+    public void setListener(TaskListener listener) { this.listener = listener; }
+
+    public void assignEmployee(Employee e) {
+        Employee previous = this.assignee;
+        this.assignee = e;
+        if (listener != null) listener.assigneeChanged(this, previous);
+    }
+
+    public void assignGroup(Group g) {
+        Group previous = this.group;
+        this.group = g;
+        if (listener != null) listener.groupChanged(this, previous);
+    }
+
+    public void setStatus(TaskStatus status) {
+        TaskStatus previous = this.status;
+        this.status = status;
+        if (listener != null) listener.statusChanged(this, previous);
+    }
+
+    // Priority and due date change together so a reschedule is one change, not two
+    public void setSchedule(TaskPriority priority, LocalDateTime dueDate) {
+        this.priority = priority;
+        this.dueDate = dueDate;
+        if (listener != null) listener.scheduleChanged(this);
+    }
 
+    public int getId() { return id; }
     public String getTitle() { return title; }
     public String getDescription() { return description; }
 
@@ -28,4 +64,6 @@ public class Task {
     public Employee getAssignee() { return assignee; }
     public Group getGroup() { return group; }
     public TaskStatus getStatus() { return status; }
+    public TaskPriority getPriority() { return priority; }
+    public LocalDateTime getDueDate() { return dueDate; }
 }
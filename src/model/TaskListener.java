@@ -0,0 +1,9 @@
+package model;
+
+// Notified after a Task's assignment, status, priority or due date changes
+public interface TaskListener {
+    void assigneeChanged(Task task, Employee previous);
+    void groupChanged(Task task, Group previous);
+    void statusChanged(Task task, TaskStatus previous);
+    void scheduleChanged(Task task);
+}
@@ -0,0 +1,16 @@
+package model;
+
+// Most urgent first; the declaration order is the order tasks are worked in
+public enum TaskPriority {
+    URGENT("Urgent"),
+    HIGH("High"),
+    NORMAL("Normal"),
+    LOW("Low");
+
+    private final String label;
+
+    TaskPriority(String label) { this.label = label; }
+
+    @Override
+    public String toString() { return label; }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import java.time.LocalDateTime;
+
+// A task that recurs on a rule. Each occurrence becomes an ordinary Task shortly before it is
+// due; lastGenerated is the occurrence most recently turned into one.
+public class TaskTemplate {
+    private int id;
+    private String title;
+    private String description;
+    private TaskPriority priority;
+    private Employee assignee;
+    private Group group;
+    private RecurrenceRule rule;
+    private LocalDateTime lastGenerated; // null until the first occurrence is generated
+    private boolean active = true;
+
+    public TaskTemplate(int id, String title, String description, TaskPriority priority,
+                        Employee assignee, Group group, RecurrenceRule rule) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        this.assignee = assignee;
+        this.group = group;
+        this.rule = rule;
+    }
+
+    public int getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public TaskPriority getPriority() { return priority; }
+    public Employee getAssignee() { return assignee; }
+    public Group getGroup() { return group; }
+    public RecurrenceRule getRule() { return rule; }
+    public LocalDateTime getLastGenerated() { return lastGenerated; }
+    public boolean isActive() { return active; }
+
+    public void setLastGenerated(LocalDateTime lastGenerated) { this.lastGenerated = lastGenerated; }
+    public void stop() { this.active = false; }
+
+    @Override
+    public String toString() {
+        return title + " (" + rule + (active ? "" : ", stopped") + ")";
+    }
+}
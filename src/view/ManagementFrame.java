@@ -1,37 +1,73 @@
 package view;
 
+import controller.ChangeBus;
 import controller.EmployeeController;
 import controller.GroupController;
+import controller.ReportEngine;
 import controller.TaskController;
+import view.panels.Card;
 import view.panels.ManagerPanel;
 import view.panels.LaborerPanel;
 import view.panels.LoginPanel;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ManagementFrame extends JFrame {
 
-    private EmployeeController employeeController;
-    private TaskController taskController;
-    private GroupController groupController;
+    // Startup stages, in order, as shown under the login form
+    private enum Stage {
+        EMPLOYEES("Loading employees..."),
+        GROUPS("Loading groups..."),
+        TASKS("Recovering tasks...");
+
+        private final String label;
+
+        Stage(String label) { this.label = label; }
+    }
+
+    private ChangeBus changeBus = new ChangeBus();
+
+    // Set by the startup worker thread, read on the EDT once each stage is announced
+    private volatile EmployeeController employeeController;
+    private volatile TaskController taskController;
+    private volatile GroupController groupController;
+    private ReportEngine reportEngine; // Built on the EDT once startup has finished
 
     private CardLayout cardLayout;
     private JPanel cardPanel;
+    private LoginPanel loginPanel;
+    private Map<String, Card> cards = new HashMap<>(); // Built once, by card name
+    private String currentCard = "LoginPanel";
+
+    private boolean dashboardsReady = false;
+    private String pendingPanel; // Dashboard asked for by a login that beat startup
 
     public ManagementFrame() {
         super("MediTask");
-        this.employeeController = new EmployeeController();
-        this.taskController = new TaskController();
-        this.groupController = new GroupController(this);
-
         buildPanel();
 
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent e) {
-                // Do stuff before close
+                // Do stuff before close (startup may not have got this far)
+                if (employeeController != null) employeeController.stopWatchingRoster();
+                if (taskController != null) {
+                    try {
+                        taskController.close();
+                    }
+                    catch (Exception ex) {
+                        JOptionPane.showMessageDialog(ManagementFrame.this,
+                                "Recent task changes could not be saved: " + ex.getMessage(), "Save Failed", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
 
                 // Then close the application
                 dispose();
@@ -39,49 +75,121 @@ public class ManagementFrame extends JFrame {
             }
         });
         setSize(1280, 720);
-        refreshPanels("LoginPanel");
         setVisible(true);
+
+        loadInBackground();
     }
 
     private void buildPanel() {
         ImageIcon window_icon = new ImageIcon("src/assets/person.png");
         this.setIconImage(window_icon.getImage());
 
-        ManagerPanel managerPanel = new ManagerPanel(this);
-        LaborerPanel laborerPanel = new LaborerPanel(this);
-        LoginPanel loginPanel = new LoginPanel(this);
+        // Only the login card exists until the data behind the dashboards has loaded
+        loginPanel = new LoginPanel(this);
+        loginPanel.setLoginEnabled(false);
 
         cardLayout = new CardLayout();
         cardPanel = new JPanel(cardLayout);
-        cardPanel.add(loginPanel, "LoginPanel");
-        cardPanel.add(managerPanel, "ManagerPanel");
-        cardPanel.add(laborerPanel, "LaborerPanel");
+        addCard("LoginPanel", loginPanel);
 
         add(cardPanel);
     }
 
-    public void refreshPanels(String panelName) {
-        cardPanel.removeAll();
+    // Loads the roster, then groups, then tasks off the EDT. Login opens as soon as the roster is in;
+    // the dashboards are built once everything else is. Nothing changes the roster until then, so
+    // the employee search index is built alongside groups and tasks.
+    private void loadInBackground() {
+        new SwingWorker<Void, Stage>() {
+            @Override
+            protected Void doInBackground() {
+                publish(Stage.EMPLOYEES);
+                employeeController = new EmployeeController(changeBus);
+                CompletableFuture<Void> searchIndex = CompletableFuture.runAsync(employeeController::buildSearchIndex);
+
+                publish(Stage.GROUPS);
+                groupController = new GroupController(ManagementFrame.this);
+                taskController = new TaskController(changeBus);
+
+                publish(Stage.TASKS);
+                taskController.recover(employeeController, groupController);
+                searchIndex.join();
+                return null;
+            }
 
-        ManagerPanel managerPanel = new ManagerPanel(this);
-        LaborerPanel laborerPanel = new LaborerPanel(this);
-        LoginPanel loginPanel = new LoginPanel(this);
+            @Override
+            protected void process(List<Stage> stages) {
+                for (Stage stage : stages) {
+                    // Past the first stage the username index exists, which is all login needs
+                    if (stage == Stage.GROUPS) loginPanel.setLoginEnabled(true);
+                    loginPanel.showProgress(stage.label, stage.ordinal(), Stage.values().length);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                }
+                catch (Exception e) {
+                    System.out.println("Startup failed: " + e.getMessage());
+                    loginPanel.showProgress("Startup failed, see log", 0, 1);
+                    return;
+                }
+
+                finishStartup();
+            }
+        }.execute();
+    }
 
-        cardPanel.add(loginPanel, "LoginPanel");
-        cardPanel.add(managerPanel, "ManagerPanel");
-        cardPanel.add(laborerPanel, "LaborerPanel");
+    private void finishStartup() {
+        reportEngine = new ReportEngine(taskController, employeeController, groupController, changeBus);
+        addCard("ManagerPanel", new ManagerPanel(this));
+        addCard("LaborerPanel", new LaborerPanel(this));
+        dashboardsReady = true;
+
+        employeeController.watchRoster();
+
+        // Recurring tasks come due by the minute; the wheel makes each check cheap
+        new Timer(30_000, e -> taskController.tick(LocalDateTime.now())).start();
+        loginPanel.hideProgress();
+        System.out.println("Startup complete " + ManagementFactory.getRuntimeMXBean().getUptime()
+                + " ms after JVM start");
+
+        if (pendingPanel != null) {
+            String panelName = pendingPanel;
+            pendingPanel = null;
+            refreshPanels(panelName);
+        }
+    }
 
-        cardPanel.revalidate();
-        cardPanel.repaint();
+    public void refreshPanels(String panelName) {
+        if (!dashboardsReady) {
+            // Logged in while tasks were still loading; finishStartup() switches over
+            pendingPanel = panelName;
+            loginPanel.setLoginEnabled(false);
+            return;
+        }
+
+        // The cards are reused: unbind the one going away and bind the one coming in
+        cards.get(currentCard).deactivate();
+        cards.get(panelName).activate();
+        currentCard = panelName;
 
         cardLayout.show(cardPanel, panelName);
     }
 
+    private void addCard(String name, JPanel panel) {
+        cards.put(name, (Card) panel);
+        cardPanel.add(panel, name);
+    }
+
     public EmployeeController getEmployeeController() {
         return employeeController;
     }
 
     public TaskController getTaskController() { return taskController; }
     public GroupController getGroupController() { return groupController; }
+    public ChangeBus getChangeBus() { return changeBus; }
+    public ReportEngine getReportEngine() { return reportEngine; }
 
 }
@@ -0,0 +1,11 @@
+package view.panels;
+
+// A panel shown as one card of ManagementFrame. Cards are built once and then bound to whoever
+// is logged in each time they are shown, so switching users only rebinds data.
+public interface Card {
+    // Called just before the card is shown, after the current user has been set
+    void activate();
+
+    // Called when another card replaces this one; drops anything belonging to the previous user
+    void deactivate();
+}
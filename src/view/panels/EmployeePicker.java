@@ -0,0 +1,154 @@
+package view.panels;
+
+import controller.EmployeeController;
+import model.Employee;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// Type-ahead employee field: each keystroke looks the text up in the roster's prefix index and lists
+// the first few matches under the field. Up/Down move through them, Enter or a click picks one, and
+// editing the text again drops the pick, so getSelectedEmployee() is only ever a chosen employee.
+public class EmployeePicker extends JTextField {
+
+    public static final String SELECTED_EMPLOYEE = "selectedEmployee"; // Fired when the pick changes
+    private static final int MATCHES = 20;
+
+    private final EmployeeController employees;
+    private final DefaultListModel<Employee> matches = new DefaultListModel<>();
+    private final JList<Employee> matchList = new JList<>(matches);
+    private final JScrollPane matchScroll = new JScrollPane(matchList);
+    private final JPopupMenu popup = new JPopupMenu();
+
+    private Employee selected;
+    private boolean updating; // Text is being set from a pick rather than typed
+
+    public EmployeePicker(EmployeeController employees) {
+        this.employees = employees;
+
+        matchList.setFocusable(false);
+        matchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchList.setVisibleRowCount(8);
+        matchList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, label((Employee) value), index, isSelected, cellHasFocus);
+            }
+        });
+        matchList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = matchList.locationToIndex(e.getPoint());
+                if (index >= 0) setSelectedEmployee(matches.getElementAt(index));
+            }
+        });
+
+        // Keep typing focus in the field while the list is open
+        matchScroll.setFocusable(false);
+        matchScroll.getVerticalScrollBar().setFocusable(false);
+        popup.setFocusable(false);
+        popup.add(matchScroll);
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { textEdited(); }
+            public void removeUpdate(DocumentEvent e) { textEdited(); }
+            public void changedUpdate(DocumentEvent e) { }
+        });
+
+        // Only swallows keys while the list is open, so Enter still reaches dialogs otherwise
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) return;
+
+                int at = matchList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        moveTo(Math.min(at + 1, matches.size() - 1));
+                        break;
+                    case KeyEvent.VK_UP:
+                        moveTo(Math.max(at - 1, 0));
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (at >= 0) setSelectedEmployee(matches.getElementAt(at));
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        break;
+                    default:
+                        return;
+                }
+                e.consume();
+            }
+        });
+
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    // The picked employee, or null while nothing is picked
+    public Employee getSelectedEmployee() {
+        return selected;
+    }
+
+    // Shows the employee as picked, or clears the field for null
+    public void setSelectedEmployee(Employee e) {
+        updating = true;
+        setText(e == null ? "" : label(e));
+        updating = false;
+        popup.setVisible(false);
+        select(e);
+    }
+
+    // Helper Methods
+
+    private void textEdited() {
+        if (updating) return;
+        select(null);
+
+        String text = getText().trim();
+        matches.clear();
+        if (!text.isEmpty()) {
+            for (Employee e : employees.search(text, MATCHES)) matches.addElement(e);
+        }
+
+        if (matches.isEmpty() || !isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        matchList.setSelectedIndex(0);
+        matchScroll.setPreferredSize(new Dimension(Math.max(getWidth(), matchList.getPreferredSize().width + 20),
+                matchList.getPreferredScrollableViewportSize().height + 4));
+        popup.pack();
+        popup.show(this, 0, getHeight());
+    }
+
+    private void moveTo(int index) {
+        matchList.setSelectedIndex(index);
+        matchList.ensureIndexIsVisible(index);
+    }
+
+    private void select(Employee e) {
+        Employee previous = selected;
+        if (previous == e) return;
+        selected = e;
+        firePropertyChange(SELECTED_EMPLOYEE, previous, e);
+    }
+
+    private static String label(Employee e) {
+        return e + " (" + e.getUsername() + ")";
+    }
+}
@@ -2,28 +2,41 @@ package view.panels;
 
 import view.ManagementFrame;
 import model.*;
+import controller.*;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
-public class LaborerPanel extends JPanel {
+public class LaborerPanel extends JPanel implements Card, ChangeBus.Subscriber {
+
+    private static final int SEARCH_LIMIT = 50;
 
     private ManagementFrame frame;
 
-    private JComboBox<Task> taskDropdown;
+    private JTextField searchField;
+    private TaskTableModel taskModel;
+    private TaskTable taskTable;
     private JComboBox<TaskStatus> updateStatusBox;
     private JButton logoutButton;
     private JButton viewDetailsButton;
     private JButton updateButton;
+    private JLabel nextTaskLabel;
+    private Task nextTask; // Most pressing open task for the user, or null
 
-    // Helper flag to prevent listeners firing during data reload
-    private boolean updatingTaskDropdown = false;
+    private boolean active = false; // Only bound to a user while shown
 
     public LaborerPanel(ManagementFrame frame) {
         this.frame = frame;
         buildPanel();
-        refreshData();
+        frame.getTaskController().getStatuses().forEach(updateStatusBox::addItem);
+        frame.getChangeBus().subscribe(this);
     }
 
     private void buildPanel() {
@@ -56,23 +69,47 @@ public class LaborerPanel extends JPanel {
         gbc.insets = new Insets(10, 10, 10, 10);
         gbc.fill = GridBagConstraints.HORIZONTAL;
 
-        // 1. Select Task Row
+        // 0. Search Row
         gbc.gridx = 0; gbc.gridy = 0; gbc.weightx = 0;
-        contentPanel.add(new JLabel("Select Task:"), gbc);
-
-        taskDropdown = new JComboBox<>();
-
-        gbc.gridx = 1; gbc.gridy = 0; gbc.weightx = 1.0;
-        contentPanel.add(taskDropdown, gbc);
-
-        // 2. View Details Button (Placed next to dropdown or below)
+        contentPanel.add(new JLabel("Search:"), gbc);
+
+        searchField = new JTextField();
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { refreshData(); }
+            @Override public void removeUpdate(DocumentEvent e) { refreshData(); }
+            @Override public void changedUpdate(DocumentEvent e) { refreshData(); }
+        });
+        gbc.gridx = 1; gbc.gridy = 0; gbc.gridwidth = 2; gbc.weightx = 1.0;
+        contentPanel.add(searchField, gbc);
+        gbc.gridwidth = 1;
+
+        // 1. Task Table (double-click a row for details)
+        taskModel = new TaskTableModel(frame.getTaskController().getStatuses());
+        taskTable = new TaskTable(taskModel, this::showTaskDetails);
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 3; gbc.weightx = 1.0; gbc.weighty = 1.0; gbc.fill = GridBagConstraints.BOTH;
+        contentPanel.add(new JScrollPane(taskTable), gbc);
+        gbc.gridwidth = 1; gbc.weighty = 0; gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // 2. Next Task (left of the details button)
+        JPanel nextPanel = new JPanel(new BorderLayout(5, 0));
+        nextTaskLabel = new JLabel("Next task: none");
+        JButton openNextButton = new JButton("Open Next");
+        openNextButton.addActionListener(e -> openNextTask());
+        nextPanel.add(nextTaskLabel, BorderLayout.CENTER);
+        nextPanel.add(openNextButton, BorderLayout.EAST);
+
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 2; gbc.weightx = 1.0;
+        contentPanel.add(nextPanel, gbc);
+        gbc.gridwidth = 1;
+
+        // View Details Button (under the table)
         viewDetailsButton = new JButton("View Task Details");
         viewDetailsButton.addActionListener(e -> showSelectedTaskDetails());
-        gbc.gridx = 2; gbc.gridy = 0; gbc.weightx = 0;
+        gbc.gridx = 2; gbc.gridy = 2; gbc.weightx = 0;
         contentPanel.add(viewDetailsButton, gbc);
 
         // 3. Update Status Row
-        gbc.gridx = 0; gbc.gridy = 1; gbc.weightx = 0;
+        gbc.gridx = 0; gbc.gridy = 3; gbc.weightx = 0;
         contentPanel.add(new JLabel("Change Status:"), gbc);
 
         JPanel statusPanel = new JPanel(new BorderLayout(5, 0));
@@ -83,49 +120,104 @@ public class LaborerPanel extends JPanel {
         statusPanel.add(updateStatusBox, BorderLayout.CENTER);
         statusPanel.add(updateButton, BorderLayout.EAST);
 
-        gbc.gridx = 1; gbc.gridy = 1; gbc.gridwidth = 2; gbc.weightx = 1.0;
+        gbc.gridx = 1; gbc.gridy = 3; gbc.gridwidth = 2; gbc.weightx = 1.0;
         contentPanel.add(statusPanel, gbc);
 
-        // 4. Filler to push content up
-        gbc.gridx = 0; gbc.gridy = 2; gbc.weighty = 1.0;
-        contentPanel.add(Box.createGlue(), gbc);
-
         add(contentPanel, BorderLayout.CENTER);
     }
 
+    @Override
+    public void activate() {
+        active = true;
+        refreshData();
+    }
+
+    @Override
+    public void deactivate() {
+        active = false;
+        searchField.setText("");
+        taskModel.setTasks(Collections.emptyList());
+        nextTask = null;
+        nextTaskLabel.setText("Next task: none");
+    }
+
     // Refresh the list of tasks assigned to the user
     private void refreshData() {
-        updatingTaskDropdown = true;
+        if (!active) return;
 
-        // 1. Load Statuses if empty
-        if (updateStatusBox.getItemCount() == 0) {
-            frame.getTaskController().getStatuses().forEach(updateStatusBox::addItem);
+        // Point the table at the user's tasks
+        Employee currentUser = frame.getEmployeeController().getCurrentUser();
+        List<Task> mine = frame.getTaskController().getTasksFor(currentUser);
+        mine.removeIf(t -> !frame.getTaskController().isReady(t)); // Blocked tasks wait off the list
+        String query = searchField.getText().trim();
+
+        if (query.isEmpty()) {
+            taskModel.setTasks(mine);
+        } else {
+            // Ranked matches among this user's tasks
+            Set<Task> visible = new HashSet<>(mine);
+            taskModel.setTasks(frame.getTaskController().searchTasks(query, SEARCH_LIMIT, visible::contains));
         }
 
-        // 2. Load Tasks
-        taskDropdown.removeAllItems();
-        taskDropdown.addItem(new PlaceholderTask());
+        // Read off the scheduler's queues rather than sorting the list above
+        nextTask = frame.getTaskController().getNextTask(currentUser);
+        if (nextTask == null) {
+            nextTaskLabel.setText("Next task: none");
+        }
+        else {
+            String due = nextTask.getDueDate() == null ? "" : ", due " + nextTask.getDueDate().toString().replace('T', ' ');
+            nextTaskLabel.setText("Next task: " + nextTask.getTitle() + " [" + nextTask.getPriority() + due + "]");
+        }
+    }
 
-        Employee currentUser = frame.getEmployeeController().getCurrentUser();
-        if (currentUser != null) {
-            for (Task t : frame.getTaskController().getTasks()) {
-                boolean isAssignedDirectly = t.getAssignee() != null && t.getAssignee().equals(currentUser);
-                boolean isAssignedToGroup = t.getGroup() != null && t.getGroup().getMembers().contains(currentUser);
-
-                if (isAssignedDirectly || isAssignedToGroup) {
-                    taskDropdown.addItem(t);
-                }
+    private void openNextTask() {
+        if (nextTask == null) {
+            JOptionPane.showMessageDialog(this, "Nothing left to do.", "Next Task", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        // Select it in the table too, so the status row below acts on it
+        for (int row = 0; row < taskModel.getRowCount(); row++) {
+            if (taskModel.getTaskAt(row) == nextTask) {
+                taskTable.setRowSelectionInterval(row, row);
+                taskTable.scrollRectToVisible(taskTable.getCellRect(row, 0, true));
+                break;
             }
         }
+        showTaskDetails(nextTask);
+    }
 
-        updatingTaskDropdown = false;
+    // Re-queries only this user's tasks, and only when a burst touched tasks or their groups
+    @Override
+    public void changed(List<ChangeEvent> events) {
+        boolean tasksChanged = false;
+        for (ChangeEvent event : events) {
+            switch (event.getKind()) {
+                case STATUS_ADDED:
+                    updateStatusBox.addItem(event.getStatus());
+                    break;
+                case TASK_CREATED:
+                case TASKS_IMPORTED:
+                case TASK_CHANGED:
+                case TASKS_UPDATED:
+                case MEMBER_ADDED:
+                case MEMBER_REMOVED:
+                case MEMBERS_CHANGED:
+                case SUBGROUP_ADDED:
+                    tasksChanged = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (tasksChanged) refreshData();
     }
 
     private void handleUpdateStatus() {
-        Task selectedTask = (Task) taskDropdown.getSelectedItem();
+        List<Task> selectedTasks = taskTable.getSelectedTasks();
         TaskStatus newStatus = (TaskStatus) updateStatusBox.getSelectedItem();
 
-        if (selectedTask == null || selectedTask instanceof PlaceholderTask) {
+        if (selectedTasks.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please select a task first.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
             return;
         }
@@ -135,26 +227,37 @@ public class LaborerPanel extends JPanel {
             return;
         }
 
-        // Update logic
-        selectedTask.setStatus(newStatus);
-
-        // Repaint to show the new status text in the dropdown immediately
-        taskDropdown.repaint();
-
-        JOptionPane.showMessageDialog(this, "Task updated to: " + newStatus);
+        // All selected rows in one step; the table catches up through the change bus, no dialog needed
+        frame.getTaskController().updateStatuses(selectedTasks, newStatus);
     }
 
     private void showSelectedTaskDetails() {
-        Task selected = (Task) taskDropdown.getSelectedItem();
-        if (selected == null || selected instanceof PlaceholderTask) {
+        Task selected = taskTable.getSelectedTask();
+        if (selected == null) {
             JOptionPane.showMessageDialog(this, "Please select a task first.", "No Selection", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        showTaskDetails(selected);
+    }
 
+    private void showTaskDetails(Task selected) {
         StringBuilder details = new StringBuilder();
         details.append("Title: ").append(selected.getTitle()).append("\n\n");
         details.append("Description:\n").append(selected.getDescription()).append("\n\n");
         details.append("Current Status: ").append(selected.getStatus()).append("\n");
+        details.append("Priority: ").append(selected.getPriority()).append("\n");
+        if (selected.getDueDate() != null) {
+            details.append("Due: ").append(selected.getDueDate().toString().replace('T', ' ')).append("\n");
+        }
+
+        List<Task> prerequisites = frame.getTaskController().getPrerequisites(selected);
+        if (!prerequisites.isEmpty()) {
+            details.append("Followed on from: ");
+            for (int i = 0; i < prerequisites.size(); i++) {
+                details.append(i == 0 ? "" : ", ").append(prerequisites.get(i).getTitle());
+            }
+            details.append("\n");
+        }
 
         if (selected.getAssignee() != null) {
             details.append("Assigned to: ").append(selected.getAssignee().getUsername()).append(" (You)\n");
@@ -176,16 +279,4 @@ public class LaborerPanel extends JPanel {
         JOptionPane.showMessageDialog(this, scrollPane, "Task Details", JOptionPane.INFORMATION_MESSAGE);
     }
 
-    // Helper class for the "Select a Task" default option
-    private static class PlaceholderTask extends Task {
-        public PlaceholderTask() {
-            super("", "", null);
-        }
-
-        @Override
-        public String toString() {
-            return " — Select a Task — ";
-        }
-    }
-
 }
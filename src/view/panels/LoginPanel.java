@@ -5,13 +5,14 @@ import view.ManagementFrame;
 import javax.swing.*;
 import java.awt.*;
 
-public class LoginPanel extends JPanel {
+public class LoginPanel extends JPanel implements Card {
 
     private ManagementFrame managementFrame;
 
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
+    private JProgressBar progressBar;
 
     public LoginPanel(ManagementFrame managementFrame) {
         this.managementFrame = managementFrame;
@@ -64,6 +65,42 @@ public class LoginPanel extends JPanel {
         gbc.gridy = 3;
         gbc.gridwidth = 2;
         add(loginButton, gbc);
+
+        // Startup progress, hidden once everything has loaded
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+
+        gbc.gridy = 4;
+        add(progressBar, gbc);
+    }
+
+    @Override
+    public void activate() {
+        usernameField.requestFocusInWindow();
+    }
+
+    // Never leave the last user's credentials on a shared terminal
+    @Override
+    public void deactivate() {
+        usernameField.setText("");
+        passwordField.setText("");
+    }
+
+    public void setLoginEnabled(boolean enabled) {
+        loginButton.setEnabled(enabled);
+    }
+
+    public void showProgress(String stage, int step, int steps) {
+        progressBar.setMaximum(steps);
+        progressBar.setValue(step);
+        progressBar.setString(stage);
+        progressBar.setVisible(true);
+    }
+
+    public void hideProgress() {
+        progressBar.setVisible(false);
+        setLoginEnabled(true);
     }
 
     private void handleLogin() {
@@ -6,36 +6,65 @@ import controller.*;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ItemEvent;
-
-public class ManagerPanel extends JPanel {
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ManagerPanel extends JPanel implements Card, ChangeBus.Subscriber {
+
+    private static final int SEARCH_LIMIT = 50;
+    private static final String[] GROUP_MODES = {"Shared by group", "Auto-assign: fewest open tasks", "Auto-assign: lightest priority load"};
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     private ManagementFrame frame;
 
-    private JComboBox<Employee> employeeBox;
+    private EmployeePicker employeePicker;
     private JComboBox<Group> groupBox;
     private JComboBox<TaskStatus> statusBox;
+    private JComboBox<TaskPriority> priorityBox;
+    private JTextField dueField;
+    private JComboBox<String> groupModeBox;
 
     private JTextField taskTitleField;
     private JTextArea taskDescField;
 
-    private JComboBox<Task> taskDropdown;
+    private TaskTableModel taskModel;
+    private TaskTable taskTable;
 
     private JComboBox<TaskStatus> updateStatusBox;
 
     private JComboBox<String> filterBox;
+    private JTextField searchField;
+    private JLabel statusCountsLabel;
 
     private JButton logoutButton;
     private JButton viewDetailsButton;
+    private JButton escalationsButton;
 
-    private boolean updatingTaskDropdown = false;
+    private boolean active = false; // Task views are only kept current while shown
 
     public ManagerPanel(ManagementFrame frame) {
         this.frame = frame;
         buildPanel();
         refreshDropdownData();
         setupInteractiveLogic();
+        frame.getChangeBus().subscribe(this);
     }
 
     private void buildPanel() {
@@ -55,6 +84,30 @@ public class ManagerPanel extends JPanel {
         JButton assignGroupBtn = new JButton("Assign Group");
         assignGroupBtn.addActionListener(e -> handleAssignGroup());
 
+        JButton bulkUpdateBtn = new JButton("Bulk Update");
+        bulkUpdateBtn.addActionListener(e -> handleBulkUpdate());
+
+        JButton importBtn = new JButton("Import Tasks");
+        importBtn.addActionListener(e -> handleImportTasks(importBtn));
+
+        JButton rebalanceBtn = new JButton("Rebalance Group");
+        rebalanceBtn.addActionListener(e -> handleRebalance());
+
+        JButton recurringBtn = new JButton("Recurring Tasks");
+        recurringBtn.addActionListener(e -> handleRecurringTasks());
+
+        JButton historyBtn = new JButton("Board History");
+        historyBtn.addActionListener(e -> handleBoardHistory());
+
+        JButton exportBtn = new JButton("Export Data");
+        exportBtn.addActionListener(e -> handleExport(exportBtn));
+
+        JButton reportsBtn = new JButton("Reports");
+        reportsBtn.addActionListener(e -> handleReports(reportsBtn));
+
+        escalationsButton = new JButton("Escalations");
+        escalationsButton.addActionListener(e -> handleEscalations());
+
         // Logout Button
         logoutButton = new JButton("Logout");
         logoutButton.addActionListener(e -> frame.refreshPanels("LoginPanel"));
@@ -63,6 +116,14 @@ public class ManagerPanel extends JPanel {
         topBar.add(addUserBtn);
         topBar.add(addGroupBtn);
         topBar.add(assignGroupBtn);
+        topBar.add(bulkUpdateBtn);
+        topBar.add(importBtn);
+        topBar.add(rebalanceBtn);
+        topBar.add(recurringBtn);
+        topBar.add(historyBtn);
+        topBar.add(exportBtn);
+        topBar.add(reportsBtn);
+        topBar.add(escalationsButton);
         topBar.add(new JSeparator(SwingConstants.VERTICAL)); // Visual separator
         topBar.add(logoutButton);
 
@@ -112,9 +173,10 @@ public class ManagerPanel extends JPanel {
         gbc.gridx = 0; gbc.gridy = 3; gbc.weightx = 0;
         leftPanel.add(new JLabel("Assign Employee:"), gbc);
 
-        employeeBox = new JComboBox<>();
+        employeePicker = new EmployeePicker(frame.getEmployeeController());
+        employeePicker.setToolTipText("Type a name, username or department");
         gbc.gridx = 1; gbc.gridy = 3; gbc.weightx = 1.0;
-        leftPanel.add(employeeBox, gbc);
+        leftPanel.add(employeePicker, gbc);
 
         // Assign Group
         gbc.gridx = 0; gbc.gridy = 4; gbc.weightx = 0;
@@ -138,8 +200,33 @@ public class ManagerPanel extends JPanel {
         gbc.gridx = 1; gbc.gridy = 6; gbc.weightx = 1.0;
         leftPanel.add(statusBox, gbc);
 
+        // Priority
+        gbc.gridx = 0; gbc.gridy = 7; gbc.weightx = 0;
+        leftPanel.add(new JLabel("Priority:"), gbc);
+
+        priorityBox = new JComboBox<>(TaskPriority.values());
+        priorityBox.setSelectedItem(TaskPriority.NORMAL);
+        gbc.gridx = 1; gbc.gridy = 7; gbc.weightx = 1.0;
+        leftPanel.add(priorityBox, gbc);
+
+        // Due Date (optional)
+        gbc.gridx = 0; gbc.gridy = 8; gbc.weightx = 0;
+        leftPanel.add(new JLabel("Due (yyyy-MM-dd HH:mm):"), gbc);
+
+        dueField = new JTextField();
+        gbc.gridx = 1; gbc.gridy = 8; gbc.weightx = 1.0;
+        leftPanel.add(dueField, gbc);
+
+        // Group Tasks: shared, or handed to the least-loaded member
+        gbc.gridx = 0; gbc.gridy = 9; gbc.weightx = 0;
+        leftPanel.add(new JLabel("Group Tasks:"), gbc);
+
+        groupModeBox = new JComboBox<>(GROUP_MODES);
+        gbc.gridx = 1; gbc.gridy = 9; gbc.weightx = 1.0;
+        leftPanel.add(groupModeBox, gbc);
+
         // Spacer to push create button to bottom
-        gbc.gridx = 0; gbc.gridy = 7; gbc.weighty = 1.0; gbc.fill = GridBagConstraints.BOTH;
+        gbc.gridx = 0; gbc.gridy = 10; gbc.weighty = 1.0; gbc.fill = GridBagConstraints.BOTH;
         leftPanel.add(Box.createGlue(), gbc);
 
         // Create Button
@@ -148,7 +235,7 @@ public class ManagerPanel extends JPanel {
         createButton.setPreferredSize(new Dimension(200, 45));
         createButton.addActionListener(e -> createTask());
 
-        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 2; gbc.weighty = 0;
+        gbc.gridx = 0; gbc.gridy = 11; gbc.gridwidth = 2; gbc.weighty = 0;
         gbc.fill = GridBagConstraints.NONE; gbc.anchor = GridBagConstraints.CENTER;
         leftPanel.add(createButton, gbc);
 
@@ -165,29 +252,32 @@ public class ManagerPanel extends JPanel {
         rightPanel.add(new JLabel("Filter View:"), rhs);
 
         filterBox = new JComboBox<>(new String[]{"All Tasks", "My Tasks"});
-        filterBox.addActionListener(e -> refreshTaskDropdown());
+        filterBox.addActionListener(e -> refreshTaskTable());
         rhs.gridx = 1; rhs.gridy = 0; rhs.weightx = 1.0; rhs.fill = GridBagConstraints.HORIZONTAL;
         rightPanel.add(filterBox, rhs);
 
-        // Task Dropdown Label
+        // Search Row
         rhs.gridx = 0; rhs.gridy = 1; rhs.weightx = 0; rhs.fill = GridBagConstraints.NONE;
-        rightPanel.add(new JLabel("Select Task:"), rhs);
-
-        // Task Dropdown
-        taskDropdown = new JComboBox<>();
-        taskDropdown.addActionListener(e -> {
-            if (updatingTaskDropdown) return;
-
-            Object selected = taskDropdown.getSelectedItem();
-            if (selected instanceof PlaceholderTask) return;
+        rightPanel.add(new JLabel("Search:"), rhs);
 
-            showSelectedTaskDetails();
+        searchField = new JTextField();
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { refreshTaskTable(); }
+            @Override public void removeUpdate(DocumentEvent e) { refreshTaskTable(); }
+            @Override public void changedUpdate(DocumentEvent e) { refreshTaskTable(); }
         });
         rhs.gridx = 1; rhs.gridy = 1; rhs.weightx = 1.0; rhs.fill = GridBagConstraints.HORIZONTAL;
-        rightPanel.add(taskDropdown, rhs);
+        rightPanel.add(searchField, rhs);
+
+        // Task Table (double-click a row for details)
+        taskModel = new TaskTableModel(frame.getTaskController().getStatuses());
+        taskTable = new TaskTable(taskModel, this::showTaskDetails);
+        rhs.gridx = 0; rhs.gridy = 2; rhs.gridwidth = 2; rhs.weightx = 1.0; rhs.weighty = 1.0; rhs.fill = GridBagConstraints.BOTH;
+        rightPanel.add(new JScrollPane(taskTable), rhs);
+        rhs.gridwidth = 1; rhs.weighty = 0;
 
         // Update Status Section
-        rhs.gridx = 0; rhs.gridy = 2; rhs.weightx = 0; rhs.fill = GridBagConstraints.NONE;
+        rhs.gridx = 0; rhs.gridy = 3; rhs.weightx = 0; rhs.fill = GridBagConstraints.NONE;
         rightPanel.add(new JLabel("Update Status:"), rhs);
 
         JPanel updatePanel = new JPanel(new BorderLayout(5, 0));
@@ -195,15 +285,27 @@ public class ManagerPanel extends JPanel {
         JButton updateButton = new JButton("Update");
         updateButton.addActionListener(e -> updateTaskStatus());
 
+        JButton scheduleButton = new JButton("Reschedule");
+        scheduleButton.addActionListener(e -> handleReschedule());
+
+        JButton prerequisiteButton = new JButton("Waits For...");
+        prerequisiteButton.addActionListener(e -> handleAddPrerequisite());
+
+        JPanel updateButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        updateButtons.add(updateButton);
+        updateButtons.add(scheduleButton);
+        updateButtons.add(prerequisiteButton);
+
         updatePanel.add(updateStatusBox, BorderLayout.CENTER);
-        updatePanel.add(updateButton, BorderLayout.EAST);
+        updatePanel.add(updateButtons, BorderLayout.EAST);
 
-        rhs.gridx = 1; rhs.gridy = 2; rhs.weightx = 1.0; rhs.fill = GridBagConstraints.HORIZONTAL;
+        rhs.gridx = 1; rhs.gridy = 3; rhs.weightx = 1.0; rhs.fill = GridBagConstraints.HORIZONTAL;
         rightPanel.add(updatePanel, rhs);
 
-        // Spacer to push content to top
-        rhs.gridx = 0; rhs.gridy = 3; rhs.weighty = 1.0; rhs.gridwidth = 2; rhs.fill = GridBagConstraints.BOTH;
-        rightPanel.add(Box.createGlue(), rhs);
+        // Live status counters
+        statusCountsLabel = new JLabel();
+        rhs.gridx = 0; rhs.gridy = 4; rhs.gridwidth = 2; rhs.weightx = 1.0; rhs.fill = GridBagConstraints.HORIZONTAL;
+        rightPanel.add(statusCountsLabel, rhs);
 
 
         // --- Final Assembly ---
@@ -215,13 +317,7 @@ public class ManagerPanel extends JPanel {
     }
 
     private void refreshDropdownData() {
-        // Employees
-        employeeBox.removeAllItems();
-        employeeBox.addItem(null);
-        frame.getEmployeeController().getEmployees().values()
-                .forEach(employeeBox::addItem);
-
-        // Groups
+        // Groups (employees are looked up as they are typed)
         groupBox.removeAllItems();
         groupBox.addItem(null);
         frame.getGroupController().getGroups()
@@ -241,24 +337,129 @@ public class ManagerPanel extends JPanel {
                 return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
             }
         };
-        employeeBox.setRenderer(friendlyRenderer);
         groupBox.setRenderer(friendlyRenderer);
 
-        // Populate the dropdown
-        refreshTaskDropdown();
+    }
+
+    // Binds the task views to the user who just logged in; the dropdowns are kept current by the bus
+    @Override
+    public void activate() {
+        active = true;
+        refreshTaskTable();
+        refreshStatusCounts();
+        refreshEscalations();
+    }
+
+    @Override
+    public void deactivate() {
+        active = false;
+
+        // Reset the form and views so the next user starts clean
+        taskTitleField.setText("");
+        taskDescField.setText("");
+        employeePicker.setSelectedEmployee(null);
+        groupBox.setSelectedItem(null);
+        priorityBox.setSelectedItem(TaskPriority.NORMAL);
+        dueField.setText("");
+        groupModeBox.setSelectedIndex(0);
+        filterBox.setSelectedIndex(0);
+        searchField.setText("");
+        taskModel.setTasks(Collections.emptyList());
+    }
+
+    // Reads the per-status bucket sizes, so this never walks the task list
+    private void refreshStatusCounts() {
+        TaskController tc = frame.getTaskController();
+        StringBuilder counts = new StringBuilder();
+        for (TaskStatus s : tc.getStatuses()) {
+            if (counts.length() > 0) counts.append("   ");
+            counts.append(s.getName()).append(": ").append(tc.getStatusCount(s));
+        }
+        statusCountsLabel.setText(counts.toString());
+    }
+
+    // Shows how many overdue tasks are waiting on the logged-in admin
+    private void refreshEscalations() {
+        int mine = frame.getTaskController().getEscalations(frame.getEmployeeController().getCurrentUser()).size();
+        escalationsButton.setText(mine > 0 ? "Escalations (" + mine + ")" : "Escalations");
+    }
+
+    // Patches the dashboard from a burst of controller changes instead of repopulating it
+    @Override
+    public void changed(List<ChangeEvent> events) {
+        Employee currentUser = frame.getEmployeeController().getCurrentUser();
+        boolean tasksAdded = false;
+        boolean tasksChanged = false;
+        boolean myGroupsChanged = false;
+        boolean escalationsChanged = false;
+
+        for (ChangeEvent event : events) {
+            switch (event.getKind()) {
+                case TASK_CREATED:
+                case TASKS_IMPORTED:
+                    tasksAdded = true;
+                    break;
+                case TASK_CHANGED:
+                case TASKS_UPDATED:
+                    tasksChanged = true;
+                    break;
+                case ESCALATIONS_CHANGED:
+                    escalationsChanged = true;
+                    break;
+                case STATUS_ADDED:
+                    statusBox.addItem(event.getStatus());
+                    updateStatusBox.addItem(event.getStatus());
+                    break;
+                case EMPLOYEE_REMOVED:
+                    // New arrivals need nothing here; the picker's lookups already see them
+                    if (employeePicker.getSelectedEmployee() == event.getEmployee()) employeePicker.setSelectedEmployee(null);
+                    break;
+                case EMPLOYEE_CHANGED:
+                    // Same instance, so only its text needs redrawing in the Assignee column
+                    tasksChanged = true;
+                    break;
+                case GROUP_CREATED:
+                    groupBox.addItem(event.getGroup());
+                    break;
+                case MEMBER_ADDED:
+                case MEMBER_REMOVED:
+                    if (event.getEmployee() == currentUser) myGroupsChanged = true;
+                    break;
+                case MEMBERS_CHANGED:
+                    myGroupsChanged = true;
+                    break;
+                case SUBGROUP_ADDED:
+                    if (frame.getGroupController().isMember(event.getGroup(), currentUser)) myGroupsChanged = true;
+                    break;
+            }
+        }
+
+        // Hidden, so the task views are rebuilt on activate() instead
+        if (!active) return;
+
+        // "All Tasks" reads the live list, so it only needs telling; filtered views are re-queried
+        boolean filtered = "My Tasks".equals(filterBox.getSelectedItem()) || !searchField.getText().trim().isEmpty();
+        if (filtered && (tasksAdded || tasksChanged || myGroupsChanged)) {
+            refreshTaskTable();
+        }
+        else {
+            if (tasksAdded) taskModel.tasksAppended();
+            if (tasksChanged) taskModel.tasksUpdated();
+        }
+
+        if (tasksAdded || tasksChanged) refreshStatusCounts();
+        if (escalationsChanged) refreshEscalations();
     }
 
     // Enforces mutual exclusivity between assigning to a person OR a group
     private void setupInteractiveLogic() {
-        employeeBox.addItemListener(e -> {
-            if (e.getStateChange() == ItemEvent.SELECTED && employeeBox.getSelectedItem() != null) {
-                groupBox.setSelectedItem(null);
-            }
+        employeePicker.addPropertyChangeListener(EmployeePicker.SELECTED_EMPLOYEE, e -> {
+            if (e.getNewValue() != null) groupBox.setSelectedItem(null);
         });
 
         groupBox.addItemListener(e -> {
             if (e.getStateChange() == ItemEvent.SELECTED && groupBox.getSelectedItem() != null) {
-                employeeBox.setSelectedItem(null);
+                employeePicker.setSelectedEmployee(null);
             }
         });
     }
@@ -349,91 +550,261 @@ public class ManagerPanel extends JPanel {
                     salary, hireDate, birthDate, dept
             );
 
-            refreshDropdownData(); // Update UI
             JOptionPane.showMessageDialog(this, "Employee Added Successfully!");
         }
     }
 
     private void handleAddGroup() {
-        String name = JOptionPane.showInputDialog(this, "Enter Group Name:");
-        if (name != null && !name.trim().isEmpty()) {
+        JTextField nameField = new JTextField();
+        JTextField ruleField = new JTextField();
+
+        Object[] message = {
+                "Enter Group Name:", nameField,
+                "Rule (optional), e.g. department=Pharmacy; role=Manager; state=OH; hired=2020-01-01..", ruleField
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, message, "Add Group", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
+
+        String name = nameField.getText().trim();
+        if (name.isEmpty()) return;
+
+        // With a rule, membership is worked out now and kept up to date as the roster changes
+        String ruleText = ruleField.getText().trim();
+        if (ruleText.isEmpty()) {
             frame.getGroupController().createGroup(name);
-            refreshDropdownData(); // Update UI dropdowns
             JOptionPane.showMessageDialog(this, "Group Created Successfully!");
+            return;
+        }
+
+        GroupRule rule;
+        try {
+            rule = GroupRule.parse(ruleText);
+        }
+        catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid rule: " + ex.getMessage(), "Error", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        Group g = frame.getGroupController().createGroup(name, rule);
+        JOptionPane.showMessageDialog(this, "Group Created with " + g.getMembers().size() + " member(s)!");
     }
 
     private void handleAssignGroup() {
         // Create fresh dropdowns for this popup
-        JComboBox<Employee> empSelect = new JComboBox<>();
-        frame.getEmployeeController().getEmployees().values().forEach(empSelect::addItem);
+        EmployeePicker empSelect = new EmployeePicker(frame.getEmployeeController());
 
         JComboBox<Group> grpSelect = new JComboBox<>();
         frame.getGroupController().getGroups().forEach(grpSelect::addItem);
 
+        // A group picked here is nested instead, bringing all of its members along
+        JComboBox<Group> subgroupSelect = new JComboBox<>();
+        subgroupSelect.addItem(null);
+        frame.getGroupController().getGroups().forEach(subgroupSelect::addItem);
+
         Object[] message = {
                 "Select Employee:", empSelect,
+                "OR Nest Group:", subgroupSelect,
                 "Select Group:", grpSelect
         };
 
         int option = JOptionPane.showConfirmDialog(this, message, "Assign Employee to Group", JOptionPane.OK_CANCEL_OPTION);
         if (option == JOptionPane.OK_OPTION) {
-            Employee e = (Employee) empSelect.getSelectedItem();
+            Employee e = empSelect.getSelectedEmployee();
             Group g = (Group) grpSelect.getSelectedItem();
-
-            if (e != null && g != null) {
-                g.addEmployee(e);
-                JOptionPane.showMessageDialog(this, "Assigned " + e.getFirstName() + " to " + g.getName());
+            Group subgroup = (Group) subgroupSelect.getSelectedItem();
+
+            if (subgroup != null && g != null) {
+                try {
+                    if (frame.getGroupController().addSubgroup(g, subgroup)) {
+                        JOptionPane.showMessageDialog(this, "Nested " + subgroup.getName() + " in " + g.getName());
+                    } else {
+                        JOptionPane.showMessageDialog(this, subgroup.getName() + " is already in " + g.getName(), "Error", JOptionPane.WARNING_MESSAGE);
+                    }
+                }
+                catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.WARNING_MESSAGE);
+                }
+            } else if (g != null && g.isDynamic()) {
+                JOptionPane.showMessageDialog(this, g.getName() + " is kept by its rule (" + g.getRule() + ")", "Error", JOptionPane.WARNING_MESSAGE);
+            } else if (e != null && g != null) {
+                if (g.addEmployee(e)) {
+                    JOptionPane.showMessageDialog(this, "Assigned " + e.getFirstName() + " to " + g.getName());
+                } else {
+                    JOptionPane.showMessageDialog(this, e.getFirstName() + " is already in " + g.getName(), "Error", JOptionPane.WARNING_MESSAGE);
+                }
             } else {
                 JOptionPane.showMessageDialog(this, "Selection invalid.", "Error", JOptionPane.WARNING_MESSAGE);
             }
         }
     }
 
-    private static class PlaceholderTask extends Task {
-        public PlaceholderTask() {
-            super("", "", null);
-        }
+    // Reads a CSV or JSON-lines file of tasks in the background, then adds the valid rows a chunk at
+    // a time with a progress bar
+    private void handleImportTasks(JButton importBtn) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Task files (CSV, JSON lines)", "csv", "jsonl", "json"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
 
-        @Override
-        public String toString() {
-            return " — Select a Task — ";
-        }
+        Path file = chooser.getSelectedFile().toPath();
+        TaskImporter importer = frame.getTaskController().newImporter();
+        importBtn.setEnabled(false);
+
+        new SwingWorker<TaskImporter.Result, Void>() {
+            @Override
+            protected TaskImporter.Result doInBackground() throws Exception {
+                return importer.read(file);
+            }
+
+            @Override
+            protected void done() {
+                TaskImporter.Result result;
+                try {
+                    result = get();
+                }
+                catch (Exception e) {
+                    importBtn.setEnabled(true);
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    JOptionPane.showMessageDialog(ManagerPanel.this, "Import failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                applyImport(result, importBtn);
+            }
+        }.execute();
     }
 
-    private void refreshTaskDropdown() {
-        updatingTaskDropdown = true;
+    // Adds the rows TaskController.IMPORT_CHUNK at a time, one chunk per EDT event, so the window
+    // repaints and the progress bar moves between chunks. Cancelling keeps the chunks already added.
+    private void applyImport(TaskImporter.Result result, JButton importBtn) {
+        List<TaskImporter.Row> rows = result.getRows();
+        ProgressMonitor monitor = new ProgressMonitor(this, "Adding imported tasks", "", 0, Math.max(rows.size(), 1));
+        monitor.setMillisToDecideToPopup(0);
 
-        taskDropdown.removeAllItems();
-        taskDropdown.addItem(new PlaceholderTask());  // <-- dummy choice
+        SwingUtilities.invokeLater(new Runnable() {
+            private int added;
+            private int unassigned;
 
-        Employee currentUser = frame.getEmployeeController().getCurrentUser();
-        String filter = (String) filterBox.getSelectedItem();
+            @Override
+            public void run() {
+                if (!monitor.isCanceled() && added < rows.size()) {
+                    int to = Math.min(added + TaskController.IMPORT_CHUNK, rows.size());
+                    unassigned += frame.getTaskController().importTasks(rows.subList(added, to));
+                    added = to;
+                    monitor.setProgress(added);
+                    monitor.setNote(String.format("%,d of %,d tasks", added, rows.size()));
+                    if (added < rows.size()) {
+                        SwingUtilities.invokeLater(this);
+                        return;
+                    }
+                }
 
-        for (Task t : frame.getTaskController().getTasks()) {
-            if ("All Tasks".equals(filter)) {
-                taskDropdown.addItem(t);
-            } else if ("My Tasks".equals(filter)) {
-                boolean assignedToMe = t.getAssignee() != null && t.getAssignee().equals(currentUser);
-                boolean inMyGroup = t.getGroup() != null && t.getGroup().getMembers().contains(currentUser);
+                monitor.close();
+                importBtn.setEnabled(true);
 
-                if (assignedToMe || inMyGroup) {
-                    taskDropdown.addItem(t);
+                String message = added < rows.size()
+                        ? "Import cancelled after " + added + " of " + rows.size() + " tasks."
+                        : "Imported " + added + " tasks.";
+                if (unassigned > 0) {
+                    message += "\n" + unassigned + " tasks were left unassigned; their assignees have left the roster.";
                 }
+                if (result.getRowsRejected() > 0) {
+                    message += "\n" + result.getRowsRejected() + " rows were rejected; see " + result.getRejectsFile();
+                }
+                JOptionPane.showMessageDialog(ManagerPanel.this, message, "Import Complete", JOptionPane.INFORMATION_MESSAGE);
             }
+        });
+    }
+
+    // Streams tasks, employees, groups and memberships into a folder, one file per table, with a
+    // progress bar; the export reads the data a chunk at a time, so the dashboard stays usable
+    private void handleExport(JButton exportBtn) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Export To Folder");
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Object[] options = {"CSV", "Columnar (.mtc)", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, "Export format:", "Export Data", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice != 0 && choice != 1) return;
+
+        Path directory = chooser.getSelectedFile().toPath();
+        DataExporter.Format format = choice == 0 ? DataExporter.Format.CSV : DataExporter.Format.COLUMNAR;
+        DataExporter exporter = new DataExporter(frame.getTaskController(), frame.getEmployeeController(), frame.getGroupController());
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting to " + directory, "", 0, 1000);
+        exportBtn.setEnabled(false);
+
+        // Shared by the export thread and the progress listener on the EDT
+        class Progress {
+            volatile boolean cancelled;
+            volatile String note = "";
         }
+        Progress progress = new Progress();
 
-        updatingTaskDropdown = false;
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return exporter.export(directory, format, (done, total) -> {
+                    progress.note = String.format("%,d of %,d rows", done, total);
+                    setProgress((int) (100 * done / Math.max(total, 1)));
+                    return !progress.cancelled;
+                });
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                exportBtn.setEnabled(true);
+                try {
+                    long rows = get();
+                    String message = progress.cancelled ? "Export cancelled after " + rows + " rows." : "Exported " + rows + " rows to " + directory + ".";
+                    JOptionPane.showMessageDialog(ManagerPanel.this, message, "Export", JOptionPane.INFORMATION_MESSAGE);
+                }
+                catch (Exception e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    JOptionPane.showMessageDialog(ManagerPanel.this, "Export failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if (!"progress".equals(e.getPropertyName())) return;
+            monitor.setProgress((Integer) e.getNewValue() * 10);
+            monitor.setNote(progress.note);
+            if (monitor.isCanceled()) progress.cancelled = true;
+        });
+        worker.execute();
     }
 
-    private void showSelectedTaskDetails() {
-        Task selected = (Task) taskDropdown.getSelectedItem();
-        if (selected == null) return;
+    // Points the table at the current view; rows are read on demand, so this costs the same for any
+    // task count
+    private void refreshTaskTable() {
+        if (!active) return;
+
+        Employee currentUser = frame.getEmployeeController().getCurrentUser();
+        String filter = (String) filterBox.getSelectedItem();
+        String query = searchField.getText().trim();
+
+        if (!query.isEmpty()) {
+            // Ranked matches instead of the full list
+            Set<Task> mine = "My Tasks".equals(filter)
+                    ? new HashSet<>(frame.getTaskController().getTasksFor(currentUser)) : null;
+            taskModel.setTasks(frame.getTaskController().searchTasks(query, SEARCH_LIMIT, mine == null ? null : mine::contains));
+        } else if ("My Tasks".equals(filter)) {
+            taskModel.setTasks(frame.getTaskController().getTasksFor(currentUser));
+        } else {
+            taskModel.setTasks(frame.getTaskController().getTasks());
+        }
+    }
 
+    private void showTaskDetails(Task selected) {
         StringBuilder details = new StringBuilder();
         details.append("Title: ").append(selected.getTitle()).append("\n");
         details.append("Description: ").append(selected.getDescription()).append("\n");
         details.append("Status: ").append(selected.getStatus()).append("\n");
+        details.append("Priority: ").append(selected.getPriority()).append("\n");
+        if (selected.getDueDate() != null) {
+            details.append("Due: ").append(DUE_FORMAT.format(selected.getDueDate())).append("\n");
+        }
         if (selected.getAssignee() != null) {
             details.append("Assigned to: ").append(selected.getAssignee()).append("\n");
         }
@@ -441,6 +812,26 @@ public class ManagerPanel extends JPanel {
             details.append("Group: ").append(selected.getGroup()).append("\n");
         }
 
+        TaskController tc = frame.getTaskController();
+        if (tc.isOverdue(selected)) {
+            details.append("OVERDUE: ").append(selected.getStatus()).append(" since ")
+                    .append(DUE_FORMAT.format(tc.getStatusSince(selected)));
+            if (tc.getEscalatedTo(selected) != null) details.append(", escalated to ").append(tc.getEscalatedTo(selected));
+            details.append("\n");
+        }
+        List<Task> prerequisites = tc.getPrerequisites(selected);
+        if (!prerequisites.isEmpty()) {
+            details.append(tc.isReady(selected) ? "Ready, waited for:\n" : "Blocked, waiting for:\n");
+            for (Task p : prerequisites) {
+                details.append("  #").append(p.getId()).append(" ").append(p).append("\n");
+            }
+        }
+
+        details.append("\nHistory:\n");
+        for (TaskHistory.Event event : tc.getTimeline(selected)) {
+            details.append(tc.describe(event)).append("\n");
+        }
+
         JTextArea textArea = new JTextArea(details.toString());
         textArea.setEditable(false);
         textArea.setOpaque(false);
@@ -448,17 +839,17 @@ public class ManagerPanel extends JPanel {
         textArea.setWrapStyleWord(true);
 
         JScrollPane scrollPane = new JScrollPane(textArea);
-        scrollPane.setPreferredSize(new Dimension(350, 200));
+        scrollPane.setPreferredSize(new Dimension(450, 260));
         scrollPane.setBorder(null);
 
         JOptionPane.showMessageDialog(this, scrollPane, "Task Details", JOptionPane.INFORMATION_MESSAGE);
     }
 
     private void updateTaskStatus() {
-        Task selectedTask = (Task) taskDropdown.getSelectedItem();
+        List<Task> selectedTasks = taskTable.getSelectedTasks();
         TaskStatus newStatus = (TaskStatus) updateStatusBox.getSelectedItem();
 
-        if (selectedTask == null || selectedTask instanceof PlaceholderTask) {
+        if (selectedTasks.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please select a task first.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
             return;
         }
@@ -468,62 +859,466 @@ public class ManagerPanel extends JPanel {
             return;
         }
 
-        selectedTask.setStatus(newStatus);
-        // Repaint the dropdown so the text (which includes the status) updates visually
-        taskDropdown.repaint();
+        // All selected rows in one step; the table and counters catch up through the change bus
+        frame.getTaskController().updateStatuses(selectedTasks, newStatus);
+    }
+
+    // Moves every task matching a group/status filter to a new status, e.g. closing out a ward at
+    // shift change
+    private void handleBulkUpdate() {
+        TaskController tc = frame.getTaskController();
+
+        JComboBox<Group> groupSelect = new JComboBox<>();
+        groupSelect.addItem(null);
+        frame.getGroupController().getGroups().forEach(groupSelect::addItem);
+
+        JComboBox<TaskStatus> fromSelect = new JComboBox<>();
+        fromSelect.addItem(null);
+        tc.getStatuses().forEach(fromSelect::addItem);
+
+        JComboBox<TaskStatus> toSelect = new JComboBox<>();
+        tc.getStatuses().forEach(toSelect::addItem);
+
+        ListCellRenderer<Object> anyRenderer = new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                String text = (value == null) ? " — Any — " : value.toString();
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        };
+        groupSelect.setRenderer(anyRenderer);
+        fromSelect.setRenderer(anyRenderer);
+
+        Object[] message = {
+                "Tasks of Group:", groupSelect,
+                "Currently in Status:", fromSelect,
+                "Move to Status:", toSelect
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, message, "Bulk Status Update", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
+
+        Group g = (Group) groupSelect.getSelectedItem();
+        TaskStatus from = (TaskStatus) fromSelect.getSelectedItem();
+        TaskStatus to = (TaskStatus) toSelect.getSelectedItem();
+
+        List<Task> matching = tc.getTasksMatching(null, g, from);
+        if (matching.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No tasks match.", "Bulk Status Update", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-        JOptionPane.showMessageDialog(this, "Status updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+        int confirm = JOptionPane.showConfirmDialog(this, "Move " + matching.size() + " tasks to " + to + "?",
+                "Bulk Status Update", JOptionPane.OK_CANCEL_OPTION);
+        if (confirm == JOptionPane.OK_OPTION) {
+            tc.updateStatuses(matching, to);
+        }
     }
 
-    private void createTask() {
-        updatingTaskDropdown = true;
+    // Spreads a group's open tasks evenly over its members, e.g. after someone joins the group
+    private void handleRebalance() {
+        JComboBox<Group> groupSelect = new JComboBox<>();
+        frame.getGroupController().getGroups().forEach(groupSelect::addItem);
+
+        JComboBox<String> modeSelect = new JComboBox<>(new String[]{GROUP_MODES[1], GROUP_MODES[2]});
+
+        Object[] message = {
+                "Group:", groupSelect,
+                "Balance by:", modeSelect
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, message, "Rebalance Group", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
 
+        Group g = (Group) groupSelect.getSelectedItem();
+        if (g == null) return;
+        if (frame.getGroupController().getAllMembers(g).isEmpty()) {
+            JOptionPane.showMessageDialog(this, g.getName() + " has no members.", "Rebalance Group", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int moved = frame.getTaskController().rebalance(g, modeSelect.getSelectedIndex() == 1);
+        JOptionPane.showMessageDialog(this, "Reassigned " + moved + " task(s) in " + g.getName() + ".");
+    }
+
+    // Lists recurring tasks; new ones can be added and existing ones stopped
+    private void handleRecurringTasks() {
+        TaskController tc = frame.getTaskController();
+        DefaultListModel<TaskTemplate> listModel = new DefaultListModel<>();
+        tc.getTemplates().forEach(listModel::addElement);
+        JList<TaskTemplate> list = new JList<>(listModel);
+
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setPreferredSize(new Dimension(550, 250));
+
+        Object[] options = {"Add...", "Stop Selected", "Close"};
+        int choice = JOptionPane.showOptionDialog(this, scrollPane, "Recurring Tasks", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.PLAIN_MESSAGE, null, options, options[2]);
+
+        if (choice == 0) {
+            handleAddTemplate();
+        }
+        else if (choice == 1 && list.getSelectedValue() != null) {
+            tc.stopTemplate(list.getSelectedValue());
+        }
+    }
+
+    private void handleAddTemplate() {
+        JTextField titleField = new JTextField();
+        JTextField descField = new JTextField();
+        JComboBox<TaskPriority> prioritySelect = new JComboBox<>(TaskPriority.values());
+        prioritySelect.setSelectedItem(TaskPriority.NORMAL);
+
+        EmployeePicker employeeSelect = new EmployeePicker(frame.getEmployeeController());
+        JComboBox<Group> groupSelect = new JComboBox<>();
+        groupSelect.addItem(null);
+        frame.getGroupController().getGroups().forEach(groupSelect::addItem);
+
+        JSpinner everySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 10_000, 1));
+        JComboBox<ChronoUnit> unitSelect = new JComboBox<>(new ChronoUnit[]{ChronoUnit.MINUTES, ChronoUnit.HOURS, ChronoUnit.DAYS, ChronoUnit.WEEKS});
+        unitSelect.setSelectedItem(ChronoUnit.DAYS);
+        JTextField startField = new JTextField(DUE_FORMAT.format(LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.HOURS)));
+
+        Object[] message = {
+                "Title:", titleField,
+                "Description:", descField,
+                "Priority:", prioritySelect,
+                "Assign Employee:", employeeSelect,
+                "OR Assign Group:", groupSelect,
+                "Repeat every:", everySpinner, unitSelect,
+                "First due (yyyy-MM-dd HH:mm):", startField
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, message, "Add Recurring Task", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
+
+        String title = titleField.getText().trim();
+        if (title.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Task title required", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        try {
+            LocalDateTime start = parseDue(startField.getText());
+            if (start == null) throw new DateTimeParseException("blank", "", 0);
+
+            RecurrenceRule rule = new RecurrenceRule(start, (Integer) everySpinner.getValue(), (ChronoUnit) unitSelect.getSelectedItem());
+            frame.getTaskController().addTemplate(title, descField.getText().trim(), (TaskPriority) prioritySelect.getSelectedItem(),
+                    employeeSelect.getSelectedEmployee(), (Group) groupSelect.getSelectedItem(), rule);
+        }
+        catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "First due time must look like 2024-03-01 09:15.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // The logged-in admin's overdue tasks; each leaves the list once it changes status
+    private void handleEscalations() {
+        TaskController tc = frame.getTaskController();
+        List<Task> inbox = tc.getEscalations(frame.getEmployeeController().getCurrentUser());
+
+        DefaultListModel<String> listModel = new DefaultListModel<>();
+        for (Task t : inbox) {
+            listModel.addElement("#" + t.getId() + " " + t.getTitle() + "  (" + t.getStatus() + " since "
+                    + DUE_FORMAT.format(tc.getStatusSince(t)) + ")");
+        }
+        JList<String> list = new JList<>(listModel);
+
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setPreferredSize(new Dimension(550, 250));
+        Object[] message = {inbox.size() + " overdue tasks escalated to you (" + tc.getOverdueCount() + " in total):", scrollPane};
+
+        Object[] options = {"View Selected", "Time Limits...", "Close"};
+        int choice = JOptionPane.showOptionDialog(this, message, "Escalations", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.PLAIN_MESSAGE, null, options, options[2]);
+
+        if (choice == 0 && list.getSelectedIndex() >= 0) {
+            showTaskDetails(inbox.get(list.getSelectedIndex()));
+        }
+        else if (choice == 1) {
+            handleTimeLimits();
+        }
+    }
+
+    // Hours a task may stay in each status before it is escalated; 0 for no limit
+    private void handleTimeLimits() {
+        TaskController tc = frame.getTaskController();
+        List<TaskStatus> statuses = new ArrayList<>(tc.getStatuses());
+        List<JSpinner> spinners = new ArrayList<>();
+        List<Object> message = new ArrayList<>();
+        message.add("Hours allowed in each status (0 = no limit):");
+        for (TaskStatus s : statuses) {
+            JSpinner spinner = new JSpinner(new SpinnerNumberModel(tc.getDeadline(s) / 60.0, 0.0, 10_000.0, 0.5));
+            spinners.add(spinner);
+            message.add(s.getName() + ":");
+            message.add(spinner);
+        }
+
+        int option = JOptionPane.showConfirmDialog(this, message.toArray(), "Status Time Limits", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
+
+        for (int i = 0; i < statuses.size(); i++) {
+            int minutes = (int) Math.round((Double) spinners.get(i).getValue() * 60);
+            if (minutes != tc.getDeadline(statuses.get(i))) tc.setDeadline(statuses.get(i), minutes);
+        }
+    }
+
+    // Task counts by status, department and group; completions per employee; pay by department and role.
+    // The data is copied here on the EDT; the pass itself runs in the worker.
+    private void handleReports(JButton reportsBtn) {
+        ReportEngine engine = frame.getReportEngine();
+        ReportEngine.Report cached = engine.getCachedReport();
+        if (cached != null) {
+            showReport(cached);
+            return;
+        }
+
+        ReportEngine.Snapshot snapshot = engine.snapshot();
+        reportsBtn.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<ReportEngine.Report, Void>() {
+            @Override
+            protected ReportEngine.Report doInBackground() {
+                return ReportEngine.compute(snapshot);
+            }
+
+            @Override
+            protected void done() {
+                reportsBtn.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+
+                ReportEngine.Report report;
+                try {
+                    report = get();
+                }
+                catch (Exception e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    JOptionPane.showMessageDialog(ManagerPanel.this, "Reports failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                engine.cache(snapshot, report);
+                showReport(report);
+            }
+        }.execute();
+    }
+
+    private void showReport(ReportEngine.Report report) {
+        List<Object[]> cells = new ArrayList<>();
+        for (ReportEngine.Cell c : report.getCells()) {
+            cells.add(new Object[]{c.getStatus(), c.getDepartment() == null ? "(unassigned)" : c.getDepartment(),
+                    c.getGroup() == null ? "(none)" : c.getGroup(), c.getTasks()});
+        }
+
+        List<Object[]> throughput = new ArrayList<>();
+        for (ReportEngine.Throughput t : report.getThroughput()) {
+            throughput.add(new Object[]{t.getEmployee(), t.getEmployee().getDepartment(), t.getCompleted(),
+                    String.format("%.2f", t.getPerDay()), t.getOpen()});
+        }
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Tasks", reportTable(new String[]{"Status", "Department", "Group", "Tasks"}, cells));
+        tabs.addTab("Throughput", reportTable(new String[]{"Employee", "Department",
+                "Completed (" + ReportEngine.THROUGHPUT_DAYS + " days)", "Per Day", "Open"}, throughput));
+        tabs.addTab("Pay by Department", reportTable(new String[]{"Department", "Headcount", "Total", "Average"}, payRows(report.getPayByDepartment())));
+        tabs.addTab("Pay by Role", reportTable(new String[]{"Role", "Headcount", "Total", "Average"}, payRows(report.getPayByRole())));
+        tabs.setPreferredSize(new Dimension(700, 400));
+
+        String when = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(report.getCreatedAt()));
+        Object[] message = {"As of " + when + " (built in " + report.getElapsedMillis() + " ms)", tabs};
+        JOptionPane.showMessageDialog(this, message, "Reports", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    private static List<Object[]> payRows(List<ReportEngine.Pay> pay) {
+        List<Object[]> rows = new ArrayList<>();
+        for (ReportEngine.Pay p : pay) {
+            rows.add(new Object[]{p.getKey(), p.getHeadcount(), String.format("%,.2f", p.getTotal()), String.format("%,.2f", p.getAverage())});
+        }
+        return rows;
+    }
+
+    private static JScrollPane reportTable(String[] columns, List<Object[]> rows) {
+        JTable table = new JTable(rows.toArray(new Object[0][]), columns) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        table.setAutoCreateRowSorter(true);
+        return new JScrollPane(table);
+    }
+
+    // Shows how the board stood at an earlier time: the count in each status and the tasks in it
+    private void handleBoardHistory() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        String input = JOptionPane.showInputDialog(this, "Show the board as of (yyyy-MM-dd HH:mm):",
+                format.format(new Date()));
+        if (input == null) return;
+
+        Date when;
+        try {
+            when = format.parse(input.trim());
+        }
+        catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Enter a time like 2024-03-01 09:15.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // The last minute counts too, so "09:15" includes changes made during 09:15
+        Map<TaskStatus, List<Task>> board = frame.getTaskController().getBoardAt(when.getTime() + 59_999);
+
+        StringBuilder text = new StringBuilder("Board as of " + format.format(when) + "\n");
+        for (Map.Entry<TaskStatus, List<Task>> column : board.entrySet()) {
+            text.append("\n").append(column.getKey()).append(" (").append(column.getValue().size()).append(")\n");
+            int shown = 0;
+            for (Task t : column.getValue()) {
+                if (shown++ == 50) {
+                    text.append("  ... and ").append(column.getValue().size() - 50).append(" more\n");
+                    break;
+                }
+                text.append("  #").append(t.getId()).append(" ").append(t.getTitle()).append("\n");
+            }
+        }
+
+        JTextArea textArea = new JTextArea(text.toString());
+        textArea.setEditable(false);
+        textArea.setCaretPosition(0);
+
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(450, 400));
+        JOptionPane.showMessageDialog(this, scrollPane, "Board History", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void createTask() {
         String title = taskTitleField.getText().trim();
         String desc = taskDescField.getText().trim();
 
         if (title.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Task title required", "Error", JOptionPane.ERROR_MESSAGE);
-            updatingTaskDropdown = false;
             return;
         }
 
         TaskStatus status = (TaskStatus) statusBox.getSelectedItem();
-        Employee e = (Employee) employeeBox.getSelectedItem();
+        Employee e = employeePicker.getSelectedEmployee();
         Group g = (Group) groupBox.getSelectedItem();
 
         // Validation: Ensure exactly one assignment target is selected
         if (e == null && g == null) {
             JOptionPane.showMessageDialog(this, "Please select either an Employee OR a Group.", "Missing Assignment", JOptionPane.WARNING_MESSAGE);
-            updatingTaskDropdown = false;
             return;
         }
 
         if (e != null && g != null) {
             JOptionPane.showMessageDialog(this, "Task cannot be assigned to both Employee and Group.", "Error", JOptionPane.ERROR_MESSAGE);
-            updatingTaskDropdown = false;
+            return;
+        }
+
+        LocalDateTime due;
+        try {
+            due = parseDue(dueField.getText());
+        }
+        catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Due date must look like 2024-03-01 09:15, or be left blank.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
         // Create logic
-        Task t = frame.getTaskController().createTask(title, desc, status);
+        Task t = frame.getTaskController().createTask(title, desc, status, (TaskPriority) priorityBox.getSelectedItem(), due);
 
         if (e != null) t.assignEmployee(e);
-        if (g != null) t.assignGroup(g);
-
-        // Add to dropdown immediately
-        refreshTaskDropdown();
+        if (g != null) {
+            t.assignGroup(g);
+            if (groupModeBox.getSelectedIndex() > 0) {
+                frame.getTaskController().autoAssign(List.of(t), g, groupModeBox.getSelectedIndex() == 2);
+            }
+        }
 
         // Reset inputs
         taskTitleField.setText("");
         taskDescField.setText("");
-        employeeBox.setSelectedItem(null);
+        employeePicker.setSelectedEmployee(null);
         groupBox.setSelectedItem(null);
+        priorityBox.setSelectedItem(TaskPriority.NORMAL);
+        dueField.setText("");
+    }
+
+    // Sets a new priority and due date on every selected task
+    private void handleReschedule() {
+        List<Task> selectedTasks = taskTable.getSelectedTasks();
+        if (selectedTasks.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please select a task first.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Task first = selectedTasks.get(0);
+        JComboBox<TaskPriority> prioritySelect = new JComboBox<>(TaskPriority.values());
+        prioritySelect.setSelectedItem(first.getPriority());
+        JTextField dueSelect = new JTextField(first.getDueDate() == null ? "" : DUE_FORMAT.format(first.getDueDate()));
+
+        Object[] message = {
+                "Priority:", prioritySelect,
+                "Due (yyyy-MM-dd HH:mm, blank for none):", dueSelect
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, message, "Reschedule " + selectedTasks.size() + " Task(s)", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) return;
+
+        LocalDateTime due;
+        try {
+            due = parseDue(dueSelect.getText());
+        }
+        catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Due date must look like 2024-03-01 09:15, or be left blank.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        for (Task t : selectedTasks) {
+            t.setSchedule((TaskPriority) prioritySelect.getSelectedItem(), due);
+        }
+    }
+
+    // Makes every selected task wait for another task, given by its ID
+    private void handleAddPrerequisite() {
+        List<Task> selectedTasks = taskTable.getSelectedTasks();
+        if (selectedTasks.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please select a task first.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        String input = JOptionPane.showInputDialog(this, "ID of the task that must be Complete first:");
+        if (input == null || input.isBlank()) return;
+
+        TaskController tc = frame.getTaskController();
+        Task prerequisite;
+        try {
+            prerequisite = tc.getTasks().get(Integer.parseInt(input.trim()));
+        }
+        catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "No task with ID " + input.trim() + ".", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-        updatingTaskDropdown = false;
+        try {
+            for (Task t : selectedTasks) {
+                tc.addPrerequisite(t, prerequisite);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Blank means no due date; a date without a time is due at the start of that day
+    private static LocalDateTime parseDue(String text) {
+        text = text.trim();
+        if (text.isEmpty()) return null;
+        if (text.length() == 10) return LocalDate.parse(text).atStartOfDay();
+        return LocalDateTime.parse(text, DUE_FORMAT);
     }
 
     private void showDetails() {
-        Employee selectedEmp = (Employee) employeeBox.getSelectedItem();
+        Employee selectedEmp = employeePicker.getSelectedEmployee();
         Group selectedGroup = (Group) groupBox.getSelectedItem();
 
         if (selectedEmp == null && selectedGroup == null) {
@@ -567,7 +1362,9 @@ public class ManagerPanel extends JPanel {
     private void showGroupPopup(Group selected) {
         // Fetch fresh data if needed, assuming 'selected' contains members
         StringBuilder details = new StringBuilder();
-        details.append("Group Name: ").append(selected.toString()).append("\n\n");
+        details.append("Group Name: ").append(selected.toString()).append("\n");
+        if (selected.isDynamic()) details.append("Rule: ").append(selected.getRule()).append("\n");
+        details.append("\n");
 
         if (selected.getMembers() == null || selected.getMembers().isEmpty()) {
             details.append("Members: None");
@@ -580,6 +1377,14 @@ public class ManagerPanel extends JPanel {
             }
         }
 
+        if (!selected.getSubgroups().isEmpty()) {
+            details.append("\nSubgroups (").append(frame.getGroupController().getAllMembers(selected).size())
+                    .append(" members in total):\n");
+            for (Group subgroup : selected.getSubgroups()) {
+                details.append(" - ").append(subgroup.getName()).append("\n");
+            }
+        }
+
         JTextArea textArea = new JTextArea(details.toString());
         textArea.setEditable(false);
         textArea.setOpaque(false);
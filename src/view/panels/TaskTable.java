@@ -0,0 +1,56 @@
+package view.panels;
+
+import model.Task;
+
+import javax.swing.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Multi-selection task table: click a header to sort, double-click a row to open it
+public class TaskTable extends JTable {
+
+    private final TaskTableModel model;
+
+    public TaskTable(TaskTableModel model, Consumer<Task> onOpen) {
+        super(model);
+        this.model = model;
+
+        setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        setFillsViewportHeight(true);
+        getColumnModel().getColumn(TaskTableModel.ID).setMaxWidth(70);
+
+        getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = columnAtPoint(e.getPoint());
+                if (column >= 0) model.sortBy(convertColumnIndexToModel(column));
+            }
+        });
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && getSelectedTask() != null) onOpen.accept(getSelectedTask());
+            }
+        });
+    }
+
+    // The first selected task, or null
+    public Task getSelectedTask() {
+        int row = getSelectedRow();
+        return row < 0 ? null : model.getTaskAt(row);
+    }
+
+    public List<Task> getSelectedTasks() {
+        int[] rows = getSelectedRows();
+        List<Task> selected = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            selected.add(model.getTaskAt(row));
+        }
+        return selected;
+    }
+
+}
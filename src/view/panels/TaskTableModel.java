@@ -0,0 +1,178 @@
+package view.panels;
+
+import model.*;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Table model that reads straight from a task list owned by the controller. Nothing is copied
+// per refresh and cells are only computed for the rows the JTable actually paints. Sorting keeps
+// a row permutation (int[]) rather than reordering the list.
+public class TaskTableModel extends AbstractTableModel {
+
+    public static final int ID = 0;
+    public static final int TITLE = 1;
+    public static final int STATUS = 2;
+    public static final int PRIORITY = 3;
+    public static final int DUE = 4;
+    public static final int ASSIGNEE = 5;
+    public static final int GROUP = 6;
+
+    private static final String[] COLUMNS = {"ID", "Title", "Status", "Priority", "Due", "Assignee", "Group"};
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final List<TaskStatus> statuses; // Status column sorts in workflow order
+
+    private List<Task> tasks = Collections.emptyList();
+    private int rowCount;         // Size of tasks when last shown, so appends can be announced
+    private int[] order;          // View row -> index into tasks; null when unsorted
+    private int sortColumn = -1;
+    private boolean descending;
+
+    public TaskTableModel(List<TaskStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    // Shows the given list as-is; it may be the controller's own list and is never modified
+    public void setTasks(List<Task> tasks) {
+        this.tasks = tasks;
+        rowCount = tasks.size();
+        sort();
+        fireTableDataChanged();
+    }
+
+    // Picks up tasks appended to the shown list since it was set; keeps the selection when unsorted
+    public void tasksAppended() {
+        int before = rowCount;
+        rowCount = tasks.size();
+        if (order == null) {
+            if (rowCount > before) fireTableRowsInserted(before, rowCount - 1);
+        }
+        else {
+            sort();
+            fireTableDataChanged();
+        }
+    }
+
+    // Redraws after tasks changed in place; JTable only repaints the rows that are visible
+    public void tasksUpdated() {
+        if (getRowCount() > 0) fireTableRowsUpdated(0, getRowCount() - 1);
+    }
+
+    public Task getTaskAt(int row) {
+        return tasks.get(order == null ? row : order[row]);
+    }
+
+    // Clicking the same column again flips the direction
+    public void sortBy(int column) {
+        descending = (column == sortColumn) && !descending;
+        sortColumn = column;
+        sort();
+        fireTableDataChanged();
+    }
+
+    public int getSortColumn() { return sortColumn; }
+    public boolean isDescending() { return descending; }
+
+    @Override
+    public int getRowCount() {
+        return order == null ? rowCount : order.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == ID ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Task t = getTaskAt(row);
+        switch (column) {
+            case ID: return t.getId();
+            case TITLE: return t.getTitle();
+            case STATUS: return t.getStatus() == null ? "" : t.getStatus().getName();
+            case PRIORITY: return t.getPriority().toString();
+            case DUE: return t.getDueDate() == null ? "" : DUE_FORMAT.format(t.getDueDate());
+            case ASSIGNEE: return t.getAssignee() == null ? "" : t.getAssignee().toString();
+            case GROUP: return t.getGroup() == null ? "" : t.getGroup().getName();
+            default: return null;
+        }
+    }
+
+    // Helper Methods
+
+    // Counting sort: each distinct key is ranked once, then rows are dropped into their rank's slot.
+    // Status, priority, assignee and group have few distinct values, so this is linear in the row count.
+    private void sort() {
+        order = null;
+        if (sortColumn < 0) return;
+
+        int n = rowCount;
+        Map<Object, int[]> slots = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            slots.computeIfAbsent(key(tasks.get(i)), k -> new int[1])[0]++;
+        }
+
+        List<Object> keys = new ArrayList<>(slots.keySet());
+        Comparator<Object> comparator = comparator();
+        keys.sort(Comparator.nullsLast(descending ? comparator.reversed() : comparator));
+
+        // Turn counts into starting offsets
+        int offset = 0;
+        for (Object key : keys) {
+            int[] slot = slots.get(key);
+            int count = slot[0];
+            slot[0] = offset;
+            offset += count;
+        }
+
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[slots.get(key(tasks.get(i)))[0]++] = i;
+        }
+        order = sorted;
+    }
+
+    private Object key(Task t) {
+        switch (sortColumn) {
+            case ID: return t.getId();
+            case TITLE: return t.getTitle();
+            case STATUS: return t.getStatus();
+            case PRIORITY: return t.getPriority();
+            case DUE: return t.getDueDate();
+            case ASSIGNEE: return t.getAssignee();
+            case GROUP: return t.getGroup();
+            default: return null;
+        }
+    }
+
+    private Comparator<Object> comparator() {
+        switch (sortColumn) {
+            case ID: return Comparator.comparingInt(k -> (Integer) k);
+            case TITLE: return Comparator.comparing(k -> (String) k, String.CASE_INSENSITIVE_ORDER);
+            case STATUS: return Comparator.comparingInt(k -> statuses.indexOf(k));
+            case PRIORITY: return Comparator.comparing(k -> (TaskPriority) k);
+            case DUE: return Comparator.comparing(k -> (LocalDateTime) k);
+            case ASSIGNEE: return Comparator.comparing(k -> ((Employee) k).getUsername());
+            default: return Comparator.comparingInt(k -> ((Group) k).getId());
+        }
+    }
+
+}